@@ -96,6 +96,14 @@ public class PerlExportDescriptor
 		return myTargetPackage;
 	}
 
+	/**
+	 * @return sigil of exported entity, one of {@link #ALL_SIGILS}
+	 */
+	public char getSigil()
+	{
+		return mySigil;
+	}
+
 	public boolean isScalar()
 	{
 		return mySigil == '$';
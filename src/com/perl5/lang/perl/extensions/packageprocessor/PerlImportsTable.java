@@ -0,0 +1,174 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.extensions.packageprocessor;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.perl5.lang.perl.psi.mro.PerlLinearIsaCache;
+import com.perl5.lang.perl.util.PerlUtil;
+import com.perl5.lang.perl.util.processors.PerlNamespaceEntityProcessor;
+import gnu.trove.THashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Immutable de-duplicated imports of a file or namespace, grouped by sigil and keyed by sigil and exported name.
+ * Computed once per root element and shared by resolve, completion and structure view; cache is dropped on root
+ * element changes and on changes of other packages namespaces, tracked by {@link PerlLinearIsaCache}
+ */
+public class PerlImportsTable
+{
+	private static final PerlImportsTable EMPTY = new PerlImportsTable(Collections.<PerlExportDescriptor>emptyList());
+
+	private final List<PerlExportDescriptor> mySubs = new ArrayList<PerlExportDescriptor>();
+	private final List<PerlExportDescriptor> myScalars = new ArrayList<PerlExportDescriptor>();
+	private final List<PerlExportDescriptor> myArrays = new ArrayList<PerlExportDescriptor>();
+	private final List<PerlExportDescriptor> myHashes = new ArrayList<PerlExportDescriptor>();
+	private final Map<String, List<PerlExportDescriptor>> myDescriptorsMap = new THashMap<String, List<PerlExportDescriptor>>();
+
+	private PerlImportsTable(@NotNull Collection<PerlExportDescriptor> descriptors)
+	{
+		for (PerlExportDescriptor descriptor : descriptors)
+		{
+			List<PerlExportDescriptor> sigilList = getSigilList(descriptor.getSigil());
+			if (sigilList != null)
+			{
+				sigilList.add(descriptor);
+			}
+
+			String key = getKey(descriptor.getSigil(), descriptor.getExportedName());
+			List<PerlExportDescriptor> namedList = myDescriptorsMap.get(key);
+			if (namedList == null)
+			{
+				myDescriptorsMap.put(key, Collections.singletonList(descriptor));
+			}
+			else
+			{
+				if (namedList.size() == 1)
+				{
+					namedList = new ArrayList<PerlExportDescriptor>(namedList);
+					myDescriptorsMap.put(key, namedList);
+				}
+				namedList.add(descriptor);
+			}
+		}
+	}
+
+	/**
+	 * Returns cached imports table for the element
+	 *
+	 * @param rootElement file or namespace definition
+	 * @return imports table
+	 */
+	@NotNull
+	public static PerlImportsTable getImportsTable(@NotNull final PsiElement rootElement)
+	{
+		return CachedValuesManager.getCachedValue(rootElement, new CachedValueProvider<PerlImportsTable>()
+		{
+			@Nullable
+			@Override
+			public Result<PerlImportsTable> compute()
+			{
+				return Result.create(computeImportsTable(rootElement), rootElement, PerlLinearIsaCache.getInstance(rootElement.getProject()));
+			}
+		});
+	}
+
+	@NotNull
+	private static PerlImportsTable computeImportsTable(@NotNull PsiElement rootElement)
+	{
+		final Set<PerlExportDescriptor> descriptors = new LinkedHashSet<PerlExportDescriptor>();
+		PerlUtil.processImportedEntities(rootElement, new PerlNamespaceEntityProcessor<PerlExportDescriptor>()
+		{
+			@Override
+			public boolean process(String namespaceName, PerlExportDescriptor entity)
+			{
+				if (entity != null)
+				{
+					descriptors.add(entity);
+				}
+				return true;
+			}
+		});
+		return descriptors.isEmpty() ? EMPTY : new PerlImportsTable(descriptors);
+	}
+
+	@NotNull
+	public List<PerlExportDescriptor> getSubs()
+	{
+		return Collections.unmodifiableList(mySubs);
+	}
+
+	@NotNull
+	public List<PerlExportDescriptor> getScalars()
+	{
+		return Collections.unmodifiableList(myScalars);
+	}
+
+	@NotNull
+	public List<PerlExportDescriptor> getArrays()
+	{
+		return Collections.unmodifiableList(myArrays);
+	}
+
+	@NotNull
+	public List<PerlExportDescriptor> getHashes()
+	{
+		return Collections.unmodifiableList(myHashes);
+	}
+
+	/**
+	 * Returns descriptors of entities, imported with specified sigil and name
+	 *
+	 * @param sigil        one of {@link PerlExportDescriptor#ALL_SIGILS}
+	 * @param exportedName name, entity imported with, without sigil; null means nothing
+	 * @return list of descriptors, empty if nothing imported
+	 */
+	@NotNull
+	public List<PerlExportDescriptor> getDescriptors(char sigil, @Nullable String exportedName)
+	{
+		List<PerlExportDescriptor> result = exportedName == null ? null : myDescriptorsMap.get(getKey(sigil, exportedName));
+		return result == null ? Collections.<PerlExportDescriptor>emptyList() : Collections.unmodifiableList(result);
+	}
+
+	@Nullable
+	private List<PerlExportDescriptor> getSigilList(char sigil)
+	{
+		switch (sigil)
+		{
+			case '&':
+				return mySubs;
+			case '$':
+				return myScalars;
+			case '@':
+				return myArrays;
+			case '%':
+				return myHashes;
+			default:
+				return null;
+		}
+	}
+
+	@NotNull
+	private static String getKey(char sigil, @NotNull String exportedName)
+	{
+		return sigil + exportedName;
+	}
+}
@@ -17,9 +17,8 @@
 package com.perl5.lang.perl.extensions.packageprocessor;
 
 import com.intellij.openapi.util.text.StringUtil;
-import com.perl5.lang.perl.psi.PerlNamespaceDefinition;
+import com.perl5.lang.perl.idea.project.PerlExportsCache;
 import com.perl5.lang.perl.psi.PerlUseStatement;
-import com.perl5.lang.perl.util.PerlPackageUtil;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
@@ -48,12 +47,9 @@ public abstract class PerlPackageProcessorBase implements PerlPackageProcessor
 		}
 
 		// fixme handle tags
-		for (PerlNamespaceDefinition namespaceDefinition : PerlPackageUtil.getNamespaceDefinitions(useStatement.getProject(), packageName))
-		{
-			export.addAll(namespaceDefinition.getEXPORT());
-			exportOk.addAll(namespaceDefinition.getEXPORT_OK());
-		}
-		exportOk.addAll(export);
+		PerlExportsCache.PackageExports packageExports = PerlExportsCache.getInstance(useStatement.getProject()).getPackageExports(packageName);
+		export.addAll(packageExports.getEXPORT());
+		exportOk.addAll(packageExports.getEXPORT_OK());
 	}
 
 
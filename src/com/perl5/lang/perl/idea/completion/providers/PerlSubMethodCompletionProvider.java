@@ -19,6 +19,8 @@ package com.perl5.lang.perl.idea.completion.providers;
 import com.intellij.codeInsight.completion.CompletionParameters;
 import com.intellij.codeInsight.completion.CompletionProvider;
 import com.intellij.codeInsight.completion.CompletionResultSet;
+import com.intellij.codeInsight.completion.PrefixMatcher;
+import com.intellij.openapi.util.Condition;
 import com.intellij.psi.PsiElement;
 import com.intellij.util.ProcessingContext;
 import com.perl5.lang.perl.extensions.PerlCompletionElementsProvider;
@@ -55,8 +57,11 @@ public class PerlSubMethodCompletionProvider extends CompletionProvider<Completi
 			return;
 		}
 
-		// fixme
-		for (PsiElement element : PerlMro.getVariants(method.getProject(), packageName, isSuper))
+		// names are checked before elements are collected and lookup elements are built
+		PrefixMatcher prefixMatcher = resultSet.getPrefixMatcher();
+		Condition<String> nameCondition = name -> name != null && prefixMatcher.prefixMatches(name);
+
+		for (PsiElement element : PerlMro.getVariants(method.getProject(), packageName, isSuper, nameCondition))
 		{
 			if (element instanceof PerlSubDefinitionBase && ((PerlSubDefinitionBase) element).isMethod())
 			{
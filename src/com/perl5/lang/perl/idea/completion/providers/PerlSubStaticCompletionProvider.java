@@ -19,15 +19,17 @@ package com.perl5.lang.perl.idea.completion.providers;
 import com.intellij.codeInsight.completion.CompletionParameters;
 import com.intellij.codeInsight.completion.CompletionProvider;
 import com.intellij.codeInsight.completion.CompletionResultSet;
+import com.intellij.codeInsight.completion.PrefixMatcher;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Condition;
 import com.intellij.psi.PsiElement;
 import com.intellij.util.ProcessingContext;
 import com.perl5.lang.perl.idea.completion.util.PerlSubCompletionUtil;
+import com.perl5.lang.perl.idea.project.PerlPackageMemberNamesCache;
 import com.perl5.lang.perl.psi.PerlGlobVariable;
 import com.perl5.lang.perl.psi.PerlSubDeclaration;
 import com.perl5.lang.perl.psi.PerlSubDefinitionBase;
 import com.perl5.lang.perl.psi.PsiPerlMethod;
-import com.perl5.lang.perl.util.PerlGlobUtil;
 import com.perl5.lang.perl.util.PerlSubUtil;
 import org.jetbrains.annotations.NotNull;
 
@@ -50,32 +52,41 @@ public class PerlSubStaticCompletionProvider extends CompletionProvider<Completi
 		}
 
 		Project project = parameters.getPosition().getProject();
+		PrefixMatcher prefixMatcher = resultSet.getPrefixMatcher();
+		Condition<String> nameCondition = name -> name != null && prefixMatcher.prefixMatches(name);
 
-		// defined subs
-		for (PerlSubDefinitionBase subDefinition : PerlSubUtil.getSubDefinitions(project, "*" + packageName))
+		// names are checked before members are processed and lookup elements are built
+		if (!PerlPackageMemberNamesCache.getInstance(project).hasMatchingMembers(packageName, nameCondition))
 		{
-			if (subDefinition.isStatic())
-			{
-				resultSet.addElement(PerlSubCompletionUtil.getSubDefinitionLookupElement(subDefinition));
-			}
+			return;
 		}
 
-		// declared subs
-		for (PerlSubDeclaration subDeclaration : PerlSubUtil.getSubDeclarations(project, "*" + packageName))
-		{
-			if (subDeclaration.isStatic())
+		PerlSubUtil.processPackageMembers(project, packageName, member -> {
+			// defined subs
+			if (member instanceof PerlSubDefinitionBase)
 			{
-				resultSet.addElement(PerlSubCompletionUtil.getSubDeclarationLookupElement(subDeclaration));
+				if (((PerlSubDefinitionBase) member).isStatic() && nameCondition.value(((PerlSubDefinitionBase) member).getSubName()))
+				{
+					resultSet.addElement(PerlSubCompletionUtil.getSubDefinitionLookupElement((PerlSubDefinitionBase) member));
+				}
 			}
-		}
-
-		// Globs
-		for (PerlGlobVariable globVariable : PerlGlobUtil.getGlobsDefinitions(project, "*" + packageName))
-		{
-			if (globVariable.getName() != null)
+			// declared subs
+			else if (member instanceof PerlSubDeclaration)
 			{
-				resultSet.addElement(PerlSubCompletionUtil.getGlobLookupElement(globVariable));
+				if (((PerlSubDeclaration) member).isStatic() && nameCondition.value(((PerlSubDeclaration) member).getSubName()))
+				{
+					resultSet.addElement(PerlSubCompletionUtil.getSubDeclarationLookupElement((PerlSubDeclaration) member));
+				}
 			}
-		}
+			// Globs
+			else if (member instanceof PerlGlobVariable)
+			{
+				if (nameCondition.value(((PerlGlobVariable) member).getName()))
+				{
+					resultSet.addElement(PerlSubCompletionUtil.getGlobLookupElement((PerlGlobVariable) member));
+				}
+			}
+			return true;
+		});
 	}
 }
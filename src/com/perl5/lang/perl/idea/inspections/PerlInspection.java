@@ -19,7 +19,13 @@ package com.perl5.lang.perl.idea.inspections;
 import com.intellij.codeInspection.LocalInspectionTool;
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.PsiSearchHelper;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * Created by hurricup on 14.06.2015.
@@ -52,6 +58,41 @@ public abstract class PerlInspection extends LocalInspectionTool
 		}
 	}
 
+	/**
+	 * Checks if name may be mentioned in the scope somewhere except the element itself. Other files are checked with
+	 * words index, element's file is checked by text occurrences of the name. Used to skip references search for names,
+	 * which can't be referenced
+	 *
+	 * @param element element with the name
+	 * @param name    element name
+	 * @param scope   search scope
+	 * @return false if name is definitely not mentioned anywhere else
+	 */
+	protected static boolean isNameMentionedElsewhere(@NotNull PsiElement element, @NotNull String name, @NotNull GlobalSearchScope scope)
+	{
+		PsiFile file = element.getContainingFile();
+		PsiSearchHelper searchHelper = PsiSearchHelper.SERVICE.getInstance(element.getProject());
+		if (searchHelper.isCheapEnoughToSearch(name, scope, file, null) != PsiSearchHelper.SearchCostResult.ZERO_OCCURRENCES)
+		{
+			return true;
+		}
+
+		VirtualFile virtualFile = file.getVirtualFile();
+		if (virtualFile == null)
+		{
+			return true;
+		}
+		if (!scope.contains(virtualFile))
+		{
+			return false;
+		}
+
+		// element's own name is the first occurrence
+		CharSequence fileText = file.getViewProvider().getContents();
+		int firstOccurrence = StringUtil.indexOf(fileText, name, 0);
+		return firstOccurrence >= 0 && StringUtil.indexOf(fileText, name, firstOccurrence + name.length()) >= 0;
+	}
+
 /*
 	@Override
 	public void inspectionStarted(LocalInspectionToolSession session, boolean isOnTheFly)
@@ -18,14 +18,19 @@ package com.perl5.lang.perl.idea.inspections;
 
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.searches.ReferencesSearch;
+import com.perl5.lang.perl.parser.Class.Accessor.psi.PerlClassAccessorDeclaration;
+import com.perl5.lang.perl.parser.moose.psi.PerlMooseAttribute;
 import com.perl5.lang.perl.psi.PerlSubDefinitionBase;
 import com.perl5.lang.perl.psi.PerlVisitor;
 import com.perl5.lang.perl.psi.PsiPerlSubDeclaration;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 import java.util.HashSet;
@@ -55,7 +60,7 @@ public class PerlSubUnusedInpsection extends PerlInspection
 			public void visitSubDefinitionBase(@NotNull PerlSubDefinitionBase o)
 			{
 				PsiElement subNameElement = o.getSubNameElement();
-				if (subNameElement != null && !EXCLUSIONS.contains(o.getName()) && ReferencesSearch.search(o, GlobalSearchScope.projectScope(o.getProject())).findFirst() == null)
+				if (subNameElement != null && !EXCLUSIONS.contains(o.getName()) && isUnused(o, o.getName(), !(o instanceof PerlClassAccessorDeclaration || o instanceof PerlMooseAttribute)))
 				{
 					holder.registerProblem(subNameElement, "Unused sub definition", ProblemHighlightType.LIKE_UNUSED_SYMBOL);
 				}
@@ -65,7 +70,7 @@ public class PerlSubUnusedInpsection extends PerlInspection
 			public void visitSubDeclaration(@NotNull PsiPerlSubDeclaration o)
 			{
 				PsiElement subNameElement = o.getSubNameElement();
-				if (subNameElement != null && !EXCLUSIONS.contains(o.getName()) && ReferencesSearch.search(o, GlobalSearchScope.projectScope(o.getProject())).findFirst() == null)
+				if (subNameElement != null && !EXCLUSIONS.contains(o.getName()) && isUnused(o, o.getName(), true))
 				{
 					holder.registerProblem(subNameElement, "Unused sub declaration", ProblemHighlightType.LIKE_UNUSED_SYMBOL);
 				}
@@ -73,4 +78,26 @@ public class PerlSubUnusedInpsection extends PerlInspection
 
 		};
 	}
+
+	/**
+	 * Checks that element has no references in project; references search is skipped for names, which are not
+	 * mentioned anywhere except the element itself
+	 *
+	 * @param element            element to check
+	 * @param name               element name
+	 * @param isNameUsedVerbatim false if element may be referenced by names, derived from its own, e.g. get_name
+	 * @return true if element is unused
+	 */
+	static boolean isUnused(@NotNull PsiElement element, @Nullable String name, boolean isNameUsedVerbatim)
+	{
+		Project project = element.getProject();
+		GlobalSearchScope searchScope = GlobalSearchScope.projectScope(project);
+
+		if (isNameUsedVerbatim && StringUtil.isNotEmpty(name) && !isNameMentionedElsewhere(element, name, searchScope))
+		{
+			return true;
+		}
+
+		return ReferencesSearch.search(element, searchScope).findFirst() == null;
+	}
 }
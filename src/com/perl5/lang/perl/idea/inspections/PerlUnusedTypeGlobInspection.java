@@ -19,8 +19,6 @@ package com.perl5.lang.perl.idea.inspections;
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.psi.PsiElementVisitor;
-import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.psi.search.searches.ReferencesSearch;
 import com.perl5.lang.perl.psi.PerlVisitor;
 import com.perl5.lang.perl.psi.PsiPerlGlobVariable;
 import com.perl5.lang.perl.util.PerlGlobUtil;
@@ -43,7 +41,7 @@ public class PerlUnusedTypeGlobInspection extends PerlInspection
 				if (o.getExplicitPackageName() == null && PerlGlobUtil.BUILT_IN.contains(o.getName()))
 				{
 				}
-				else if (ReferencesSearch.search(o, GlobalSearchScope.projectScope(o.getProject())).findFirst() == null)
+				else if (PerlSubUnusedInpsection.isUnused(o, o.getName(), true))
 				{
 					holder.registerProblem(o, "Unused typeglob alias", ProblemHighlightType.LIKE_UNUSED_SYMBOL);
 				}
@@ -18,9 +18,14 @@ package com.perl5.lang.perl.idea.inspections;
 
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.SearchScope;
 import com.intellij.psi.search.searches.ReferencesSearch;
 import com.perl5.lang.perl.psi.PerlVariable;
 import com.perl5.lang.perl.psi.PerlVariableDeclarationWrapper;
+import com.perl5.lang.perl.psi.PerlVariableNameElement;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.Arrays;
 import java.util.HashSet;
@@ -50,7 +55,7 @@ public class PerlVariableGlobalUnusedInspection extends PerlVariableDeclarationI
 				return;
 			}
 
-			if (ReferencesSearch.search(variableDeclarationWrapper, variableDeclarationWrapper.getUseScope()).findFirst() == null)
+			if (isUnused(variableDeclarationWrapper))
 			{
 				PerlVariable variable = variableDeclarationWrapper.getVariable();
 				if (variable != null)
@@ -63,5 +68,27 @@ public class PerlVariableGlobalUnusedInspection extends PerlVariableDeclarationI
 			}
 		}
 	}
+
+	/**
+	 * Checks that global variable has no references; references search is skipped for names, which are not mentioned
+	 * anywhere except the declaration itself
+	 */
+	private static boolean isUnused(@NotNull PerlVariableDeclarationWrapper variableDeclarationWrapper)
+	{
+		SearchScope useScope = variableDeclarationWrapper.getUseScope();
+		PerlVariable variable = variableDeclarationWrapper.getVariable();
+		PerlVariableNameElement variableNameElement = variable == null ? null : variable.getVariableNameElement();
+
+		if (variableNameElement != null && useScope instanceof GlobalSearchScope)
+		{
+			String variableName = variableNameElement.getName();
+			if (StringUtil.isNotEmpty(variableName) && !isNameMentionedElsewhere(variableDeclarationWrapper, variableName, (GlobalSearchScope) useScope))
+			{
+				return true;
+			}
+		}
+
+		return ReferencesSearch.search(variableDeclarationWrapper, useScope).findFirst() == null;
+	}
 }
 
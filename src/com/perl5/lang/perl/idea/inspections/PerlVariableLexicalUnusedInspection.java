@@ -21,6 +21,7 @@ import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.psi.search.searches.ReferencesSearch;
 import com.perl5.lang.perl.psi.PerlVariable;
 import com.perl5.lang.perl.psi.PerlVariableDeclarationWrapper;
+import com.perl5.lang.perl.psi.utils.PerlLexicalBindings;
 
 /**
  * Created by hurricup on 18.07.2015.
@@ -34,7 +35,8 @@ public class PerlVariableLexicalUnusedInspection extends PerlVariableDeclaration
 				!variableDeclarationWrapper.isLocalDeclaration()
 				)
 		{
-			if (ReferencesSearch.search(variableDeclarationWrapper, variableDeclarationWrapper.getUseScope()).findFirst() == null)
+			if (!PerlLexicalBindings.isUsedInFile(variableDeclarationWrapper) &&
+					ReferencesSearch.search(variableDeclarationWrapper, variableDeclarationWrapper.getUseScope()).findFirst() == null)
 			{
 				PerlVariable variable = variableDeclarationWrapper.getVariable();
 				if (variable != null)
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.idea.project;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.containers.ContainerUtil;
+import com.perl5.lang.perl.psi.PerlNamespaceDefinition;
+import com.perl5.lang.perl.psi.mro.PerlLinearIsaCache;
+import com.perl5.lang.perl.util.PerlPackageUtil;
+import gnu.trove.THashSet;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Project-level cache of packages exports: EXPORT and EXPORT_OK of all namespace definitions of the package, read
+ * from stubs when possible. Exports are declared on namespace level, so cache is dropped together with
+ * {@link PerlLinearIsaCache}, on perl psi changes outside of sub bodies, roots changes and dumb mode exit.
+ */
+public class PerlExportsCache
+{
+	private final Project myProject;
+	private volatile ExportsTable myExportsTable = new ExportsTable(-1);
+
+	public PerlExportsCache(@NotNull Project project)
+	{
+		myProject = project;
+	}
+
+	public static PerlExportsCache getInstance(@NotNull Project project)
+	{
+		return ServiceManager.getService(project, PerlExportsCache.class);
+	}
+
+	/**
+	 * Returns exports of the package, merged from all its definitions
+	 *
+	 * @param packageName canonical package name
+	 * @return package exports
+	 */
+	@NotNull
+	public PackageExports getPackageExports(@NotNull String packageName)
+	{
+		PerlLinearIsaCache namespacesTracker = PerlLinearIsaCache.getInstance(myProject);
+		long modificationCount = namespacesTracker.getModificationCount();
+
+		ExportsTable exportsTable = myExportsTable;
+		if (exportsTable.myModificationCount != modificationCount)
+		{
+			myExportsTable = exportsTable = new ExportsTable(modificationCount);
+		}
+
+		PackageExports result = exportsTable.myPackagesExports.get(packageName);
+		if (result == null)
+		{
+			result = computePackageExports(packageName);
+			if (modificationCount == namespacesTracker.getModificationCount() && !DumbService.isDumb(myProject))
+			{
+				exportsTable.myPackagesExports.put(packageName, result);
+			}
+		}
+		return result;
+	}
+
+	@NotNull
+	private PackageExports computePackageExports(@NotNull String packageName)
+	{
+		Set<String> export = new THashSet<String>();
+		Set<String> exportOk = new THashSet<String>();
+
+		for (PerlNamespaceDefinition namespaceDefinition : PerlPackageUtil.getNamespaceDefinitions(myProject, packageName))
+		{
+			export.addAll(namespaceDefinition.getEXPORT());
+			exportOk.addAll(namespaceDefinition.getEXPORT_OK());
+		}
+		exportOk.addAll(export);
+
+		return new PackageExports(export, exportOk);
+	}
+
+	private static class ExportsTable
+	{
+		private final long myModificationCount;
+		private final Map<String, PackageExports> myPackagesExports = ContainerUtil.newConcurrentMap();
+
+		public ExportsTable(long modificationCount)
+		{
+			myModificationCount = modificationCount;
+		}
+	}
+
+	public static class PackageExports
+	{
+		private final Set<String> myEXPORT;
+		private final Set<String> myEXPORT_OK;
+
+		public PackageExports(@NotNull Set<String> EXPORT, @NotNull Set<String> EXPORT_OK)
+		{
+			myEXPORT = Collections.unmodifiableSet(EXPORT);
+			myEXPORT_OK = Collections.unmodifiableSet(EXPORT_OK);
+		}
+
+		/**
+		 * @return names, exported by default
+		 */
+		@NotNull
+		public Set<String> getEXPORT()
+		{
+			return myEXPORT;
+		}
+
+		/**
+		 * @return names, allowed to be exported, including default ones
+		 */
+		@NotNull
+		public Set<String> getEXPORT_OK()
+		{
+			return myEXPORT_OK;
+		}
+	}
+}
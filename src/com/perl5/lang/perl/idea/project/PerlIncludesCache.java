@@ -0,0 +1,372 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.idea.project;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.impl.source.PsiFileImpl;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.ObjectStubTree;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.stubs.StubTreeLoader;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.containers.ContainerUtil;
+import com.perl5.lang.perl.idea.stubs.imports.PerlUseStatementStub;
+import com.perl5.lang.perl.idea.stubs.imports.runtime.PerlRuntimeImportStub;
+import com.perl5.lang.perl.psi.PerlDoExpr;
+import com.perl5.lang.perl.psi.PerlUseStatement;
+import com.perl5.lang.perl.util.PerlPackageUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Cache of files, transitively included into perl files with use, require and do. Every file is represented by the
+ * list of relative paths it imports, collected from stubs when possible. Included files closure is cached on the root
+ * file and remains valid while imports of all files in it, root lib dirs and class roots stay the same and unresolved
+ * imports remain unresolved; changes in files, not touching their imports, don't invalidate it.
+ */
+public class PerlIncludesCache
+{
+	private static final Key<IncludesClosure> INCLUDES_CLOSURE_KEY = Key.create("PERL_INCLUDES_CLOSURE");
+
+	private final Project myProject;
+	private final Map<VirtualFile, FileImports> myFilesImports = ContainerUtil.createConcurrentWeakMap();
+
+	public PerlIncludesCache(@NotNull Project project)
+	{
+		myProject = project;
+	}
+
+	public static PerlIncludesCache getInstance(@NotNull Project project)
+	{
+		return ServiceManager.getService(project, PerlIncludesCache.class);
+	}
+
+	/**
+	 * Returns files, transitively included into the file, including file itself
+	 *
+	 * @param psiFile root file
+	 * @return unmodifiable set of files
+	 */
+	@NotNull
+	public Set<VirtualFile> getIncludedFiles(@NotNull PsiFile psiFile)
+	{
+		return getIncludesClosure(psiFile).myFiles;
+	}
+
+	/**
+	 * Returns search scope, containing files, transitively included into the file, including file itself
+	 *
+	 * @param psiFile root file
+	 * @return search scope, reused while included files are the same
+	 */
+	@NotNull
+	public GlobalSearchScope getIncludedFilesScope(@NotNull PsiFile psiFile)
+	{
+		IncludesClosure includesClosure = getIncludesClosure(psiFile);
+		GlobalSearchScope scope = includesClosure.myScope;
+		if (scope == null)
+		{
+			includesClosure.myScope = scope = GlobalSearchScope.filesScope(myProject, includesClosure.myFiles);
+		}
+		return scope;
+	}
+
+	@NotNull
+	private IncludesClosure getIncludesClosure(@NotNull PsiFile psiFile)
+	{
+		IncludesClosure includesClosure = psiFile.getUserData(INCLUDES_CLOSURE_KEY);
+		if (includesClosure == null || !isValid(includesClosure, psiFile))
+		{
+			includesClosure = buildIncludesClosure(psiFile);
+			psiFile.putUserData(INCLUDES_CLOSURE_KEY, includesClosure);
+		}
+		return includesClosure;
+	}
+
+	private boolean isValid(@NotNull IncludesClosure includesClosure, @NotNull PsiFile psiFile)
+	{
+		if (includesClosure.myPackageFilesModificationCount != PerlPackageFilesCache.getInstance(myProject).getModificationCount())
+		{
+			return false;
+		}
+
+		if (includesClosure.myRootImports.myModificationStamp != psiFile.getModificationStamp())
+		{
+			if (!includesClosure.myRootLibPaths.equals(PerlPackageUtil.getLibPathsForPsiFile(psiFile)))
+			{
+				return false;
+			}
+			FileImports rootImports = getPsiFileImports(psiFile);
+			if (!rootImports.isSameImports(includesClosure.myRootImports))
+			{
+				return false;
+			}
+			includesClosure.myRootImports = rootImports;
+		}
+
+		// unresolved paths may be created anywhere, e.g. require 'config.pl' next to the root file
+		long vfsModificationCount = VirtualFileManager.getInstance().getModificationCount();
+		if (includesClosure.myVfsModificationCount != vfsModificationCount)
+		{
+			for (String relativePath : includesClosure.myUnresolvedPaths)
+			{
+				if (PerlPackageUtil.resolveRelativePathToVirtualFile(psiFile, relativePath) != null)
+				{
+					return false;
+				}
+			}
+			includesClosure.myVfsModificationCount = vfsModificationCount;
+		}
+
+		for (Map.Entry<VirtualFile, FileImports> entry : includesClosure.myFilesImports.entrySet())
+		{
+			VirtualFile virtualFile = entry.getKey();
+			if (!virtualFile.isValid())
+			{
+				return false;
+			}
+			FileImports fileImports = entry.getValue();
+			if (fileImports.myModificationStamp != getModificationStamp(virtualFile))
+			{
+				FileImports currentImports = getFileImports(virtualFile);
+				if (!currentImports.isSameImports(fileImports))
+				{
+					return false;
+				}
+				entry.setValue(currentImports);
+			}
+		}
+
+		return true;
+	}
+
+	@NotNull
+	private IncludesClosure buildIncludesClosure(@NotNull PsiFile psiFile)
+	{
+		long packageFilesModificationCount = PerlPackageFilesCache.getInstance(myProject).getModificationCount();
+		long vfsModificationCount = VirtualFileManager.getInstance().getModificationCount();
+		List<VirtualFile> rootLibPaths = PerlPackageUtil.getLibPathsForPsiFile(psiFile);
+		FileImports rootImports = getPsiFileImports(psiFile);
+
+		Set<VirtualFile> files = new LinkedHashSet<VirtualFile>();
+		Map<VirtualFile, FileImports> filesImports = ContainerUtil.newConcurrentMap();
+		Set<String> unresolvedPaths = new LinkedHashSet<String>();
+
+		VirtualFile rootVirtualFile = psiFile.getVirtualFile();
+		if (rootVirtualFile != null)
+		{
+			files.add(rootVirtualFile);
+		}
+
+		Deque<FileImports> queue = new ArrayDeque<FileImports>();
+		queue.add(rootImports);
+		while (!queue.isEmpty())
+		{
+			for (String relativePath : queue.removeFirst().myImportPaths)
+			{
+				// paths are resolved from the root file, as perl does
+				VirtualFile virtualFile = PerlPackageUtil.resolveRelativePathToVirtualFile(psiFile, relativePath);
+				if (virtualFile == null)
+				{
+					unresolvedPaths.add(relativePath);
+				}
+				else if (files.add(virtualFile))
+				{
+					FileImports fileImports = getFileImports(virtualFile);
+					filesImports.put(virtualFile, fileImports);
+					queue.add(fileImports);
+				}
+			}
+		}
+
+		return new IncludesClosure(
+				Collections.unmodifiableSet(files),
+				filesImports,
+				rootImports,
+				rootLibPaths,
+				unresolvedPaths,
+				packageFilesModificationCount,
+				vfsModificationCount
+		);
+	}
+
+	private static long getModificationStamp(@NotNull VirtualFile virtualFile)
+	{
+		Document document = FileDocumentManager.getInstance().getCachedDocument(virtualFile);
+		return document == null ? virtualFile.getModificationStamp() : document.getModificationStamp();
+	}
+
+	/**
+	 * Returns imports of the included file, re-reading them if file has been changed
+	 */
+	@NotNull
+	private FileImports getFileImports(@NotNull VirtualFile virtualFile)
+	{
+		long modificationStamp = getModificationStamp(virtualFile);
+		FileImports fileImports = myFilesImports.get(virtualFile);
+		if (fileImports == null || fileImports.myModificationStamp != modificationStamp)
+		{
+			List<String> importPaths = new ArrayList<String>();
+
+			ObjectStubTree objectStubTree = StubTreeLoader.getInstance().readOrBuild(myProject, virtualFile, null);
+			if (objectStubTree != null)
+			{
+				collectImportsFromStub((StubElement) objectStubTree.getRoot(), importPaths);
+			}
+			else
+			{
+				PsiFile psiFile = PsiManager.getInstance(myProject).findFile(virtualFile);
+				if (psiFile != null)
+				{
+					collectImportsFromPsi(psiFile, importPaths);
+				}
+			}
+
+			fileImports = new FileImports(modificationStamp, importPaths);
+			myFilesImports.put(virtualFile, fileImports);
+		}
+		return fileImports;
+	}
+
+	/**
+	 * Returns imports of the root file, from stubs if AST is not loaded, from psi otherwise
+	 */
+	@NotNull
+	private static FileImports getPsiFileImports(@NotNull PsiFile psiFile)
+	{
+		List<String> importPaths = new ArrayList<String>();
+
+		StubElement fileStub = psiFile instanceof PsiFileImpl ? ((PsiFileImpl) psiFile).getStub() : null;
+		if (fileStub != null)
+		{
+			collectImportsFromStub(fileStub, importPaths);
+		}
+		else
+		{
+			collectImportsFromPsi(psiFile, importPaths);
+		}
+
+		return new FileImports(psiFile.getModificationStamp(), importPaths);
+	}
+
+	private static void collectImportsFromStub(@NotNull StubElement currentStub, @NotNull List<String> importPaths)
+	{
+		if (currentStub instanceof PerlUseStatementStub)
+		{
+			String packageName = ((PerlUseStatementStub) currentStub).getPackageName();
+			if (packageName != null)
+			{
+				importPaths.add(PerlPackageUtil.getPackagePathByName(packageName));
+			}
+		}
+		else if (currentStub instanceof PerlRuntimeImportStub)
+		{
+			String importPath = ((PerlRuntimeImportStub) currentStub).getImportPath();
+			if (importPath != null)
+			{
+				importPaths.add(importPath);
+			}
+		}
+
+		for (Object childStub : currentStub.getChildrenStubs())
+		{
+			assert childStub instanceof StubElement : childStub.getClass();
+			collectImportsFromStub((StubElement) childStub, importPaths);
+		}
+	}
+
+	private static void collectImportsFromPsi(@NotNull PsiFile psiFile, @NotNull List<String> importPaths)
+	{
+		for (PsiElement importStatement : PsiTreeUtil.<PsiElement>findChildrenOfAnyType(psiFile, PerlUseStatement.class, PerlDoExpr.class))
+		{
+			if (importStatement instanceof PerlUseStatement)
+			{
+				String packageName = ((PerlUseStatement) importStatement).getPackageName();
+				if (packageName != null)
+				{
+					importPaths.add(PerlPackageUtil.getPackagePathByName(packageName));
+				}
+			}
+			else if (importStatement instanceof PerlDoExpr)
+			{
+				String importPath = ((PerlDoExpr) importStatement).getImportPath();
+				if (importPath != null)
+				{
+					importPaths.add(importPath);
+				}
+			}
+		}
+	}
+
+	private static class FileImports
+	{
+		private final long myModificationStamp;
+		private final List<String> myImportPaths;
+
+		public FileImports(long modificationStamp, @NotNull List<String> importPaths)
+		{
+			myModificationStamp = modificationStamp;
+			myImportPaths = importPaths;
+		}
+
+		public boolean isSameImports(@NotNull FileImports other)
+		{
+			return myImportPaths.equals(other.myImportPaths);
+		}
+	}
+
+	private static class IncludesClosure
+	{
+		private final Set<VirtualFile> myFiles;
+		private final Map<VirtualFile, FileImports> myFilesImports;
+		private final List<VirtualFile> myRootLibPaths;
+		private final Set<String> myUnresolvedPaths;
+		private final long myPackageFilesModificationCount;
+		private volatile long myVfsModificationCount;
+		private volatile FileImports myRootImports;
+		@Nullable
+		private volatile GlobalSearchScope myScope;
+
+		public IncludesClosure(@NotNull Set<VirtualFile> files,
+							   @NotNull Map<VirtualFile, FileImports> filesImports,
+							   @NotNull FileImports rootImports,
+							   @NotNull List<VirtualFile> rootLibPaths,
+							   @NotNull Set<String> unresolvedPaths,
+							   long packageFilesModificationCount,
+							   long vfsModificationCount)
+		{
+			myFiles = files;
+			myFilesImports = filesImports;
+			myRootImports = rootImports;
+			myRootLibPaths = rootLibPaths;
+			myUnresolvedPaths = unresolvedPaths;
+			myPackageFilesModificationCount = packageFilesModificationCount;
+			myVfsModificationCount = vfsModificationCount;
+		}
+	}
+}
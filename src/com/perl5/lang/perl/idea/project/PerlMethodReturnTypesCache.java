@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.idea.project;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.util.containers.ContainerUtil;
+import com.perl5.lang.perl.psi.PerlSubDeclaration;
+import com.perl5.lang.perl.psi.PerlSubDefinitionBase;
+import com.perl5.lang.perl.psi.mro.PerlMro;
+import com.perl5.lang.perl.util.PerlPackageUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * Project-level cache of object methods return types, declared with #@returns annotations, keyed by invocant
+ * package and method name. Methods are resolved with {@link PerlMro}, annotations are read from sub stubs, so cache is
+ * dropped on any change of {@link PerlPackageMembersTracker}. Typing inside sub blocks keeps the cache, so chained
+ * calls are resolved with lookups instead of resolving each method.
+ */
+public class PerlMethodReturnTypesCache
+{
+	// marker for methods without known return type
+	private static final String NO_RETURN_TYPE = "";
+
+	private final Project myProject;
+	private volatile ReturnTypesTable myReturnTypesTable = new ReturnTypesTable(-1);
+
+	public PerlMethodReturnTypesCache(@NotNull Project project)
+	{
+		myProject = project;
+	}
+
+	public static PerlMethodReturnTypesCache getInstance(@NotNull Project project)
+	{
+		return ServiceManager.getService(project, PerlMethodReturnTypesCache.class);
+	}
+
+	/**
+	 * Returns type, returned by object method
+	 *
+	 * @param packageName invocant package name, UNIVERSAL if null
+	 * @param methodName  method name
+	 * @param isSuper     true if method is invoked via SUPER, packageName is a current package in this case
+	 * @return package name or null if unknown
+	 */
+	@Nullable
+	public String getReturnType(@Nullable String packageName, @NotNull String methodName, boolean isSuper)
+	{
+		if (packageName == null)
+		{
+			packageName = PerlPackageUtil.UNIVERSAL_PACKAGE;
+		}
+
+		PerlPackageMembersTracker membersTracker = PerlPackageMembersTracker.getInstance(myProject);
+		long modificationCount = membersTracker.getModificationCount();
+
+		ReturnTypesTable returnTypesTable = myReturnTypesTable;
+		if (returnTypesTable.myModificationCount != modificationCount)
+		{
+			myReturnTypesTable = returnTypesTable = new ReturnTypesTable(modificationCount);
+		}
+
+		Map<String, String> cache = isSuper ? returnTypesTable.mySuperReturnTypes : returnTypesTable.myReturnTypes;
+		String canonicalName = packageName + PerlPackageUtil.PACKAGE_SEPARATOR + methodName;
+		String result = cache.get(canonicalName);
+		if (result == null)
+		{
+			result = computeReturnType(packageName, methodName, isSuper);
+			if (modificationCount == membersTracker.getModificationCount() && !DumbService.isDumb(myProject))
+			{
+				cache.put(canonicalName, result);
+			}
+		}
+		return result.isEmpty() ? null : result;
+	}
+
+	@NotNull
+	private String computeReturnType(@NotNull String packageName, @NotNull String methodName, boolean isSuper)
+	{
+		for (PsiElement targetElement : PerlMro.resolveSub(myProject, packageName, methodName, isSuper))
+		{
+			if (targetElement instanceof PerlSubDefinitionBase && ((PerlSubDefinitionBase) targetElement).getReturns() != null)
+			{
+				return ((PerlSubDefinitionBase) targetElement).getReturns();
+			}
+			else if (targetElement instanceof PerlSubDeclaration && ((PerlSubDeclaration) targetElement).getReturns() != null)
+			{
+				return ((PerlSubDeclaration) targetElement).getReturns();
+			}
+		}
+		return NO_RETURN_TYPE;
+	}
+
+	private static class ReturnTypesTable
+	{
+		private final long myModificationCount;
+		private final Map<String, String> myReturnTypes = ContainerUtil.newConcurrentMap();
+		private final Map<String, String> mySuperReturnTypes = ContainerUtil.newConcurrentMap();
+
+		public ReturnTypesTable(long modificationCount)
+		{
+			myModificationCount = modificationCount;
+		}
+	}
+}
@@ -19,28 +19,96 @@ package com.perl5.lang.perl.idea.project;
 import com.intellij.openapi.application.Application;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.ProjectComponent;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.fileTypes.FileTypeManager;
 import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.startup.StartupManager;
+import com.intellij.openapi.util.AtomicNotNullLazyValue;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.*;
+import com.intellij.psi.*;
+import com.intellij.psi.impl.source.PsiFileImpl;
+import com.intellij.psi.impl.source.tree.FileElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.*;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.containers.FilteringIterator;
+import com.intellij.util.containers.StringInterner;
+import com.intellij.util.messages.MessageBusConnection;
+import com.perl5.lang.perl.fileTypes.PerlFileType;
+import com.perl5.lang.perl.idea.stubs.globs.PerlGlobsStubIndex;
+import com.perl5.lang.perl.idea.stubs.namespaces.PerlNamespaceDefinitionStubIndex;
+import com.perl5.lang.perl.idea.stubs.subsdeclarations.PerlSubDeclarationStubIndex;
+import com.perl5.lang.perl.idea.stubs.subsdefinitions.PerlSubDefinitionsStubIndex;
+import com.perl5.lang.perl.psi.PerlFile;
 import com.perl5.lang.perl.util.PerlGlobUtil;
 import com.perl5.lang.perl.util.PerlPackageUtil;
 import com.perl5.lang.perl.util.PerlSubUtil;
+import com.perl5.lang.perl.util.processors.PerlInternalIndexKeysProcessor;
 import gnu.trove.THashSet;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Created by hurricup on 04.09.2015.
+ * Names cache is built from indexes once and then maintained incrementally: PSI and VFS changes in perl files are
+ * collected as per-file deltas; added names are appended to the current snapshot, removed ones are checked against
+ * indexes and removed from the snapshot, unless some other file still defines them. Names of a file are the keys its
+ * stubs put into the indexes. Under the write lock only the old text of a changed file is saved, names are collected
+ * from it by the updater, once per applied delta, not per event. Large VFS batches and directory changes cause full
+ * rebuild.
  */
 public class PerlNamesCache implements ProjectComponent
 {
+	/**
+	 * Number of names added or removed with deltas after which snapshot is flattened into the new base set
+	 */
+	private static final int MAX_OVERLAY_SIZE = 1024;
+
+	/**
+	 * Number of recently changed files, names of which are kept to avoid collecting them again on the next change
+	 */
+	private static final int MAX_RECENT_FILES = 64;
+
+	/**
+	 * Number of perl files changed by a single VFS batch, after which full rebuild is cheaper than deltas
+	 */
+	private static final int MAX_VFS_CHANGED_FILES = 64;
+
 	final Application myApplication = ApplicationManager.getApplication();
 	final NamesCacheUpdater updaterRunner = new NamesCacheUpdater();
 	final Thread updaterThread = new Thread(updaterRunner);
 	private final Project myProject;
-	private Set<String> KNOWN_SUBS = new THashSet<>();
-	private Set<String> KNOWN_PACKAGES = new THashSet<>();
+	// names of changed files before their first change, until delta is applied
+	private final Map<VirtualFile, AtomicNotNullLazyValue<FileNames>> myPendingFilesNames =
+			ContainerUtil.newConcurrentMap();
+	// names of recently changed files after the last applied delta
+	private final Map<VirtualFile, FileNames> myRecentFilesNames = Collections.synchronizedMap(
+			new LinkedHashMap<VirtualFile, FileNames>(MAX_RECENT_FILES, 0.75f, true)
+			{
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<VirtualFile, FileNames> eldest)
+				{
+					return size() > MAX_RECENT_FILES;
+				}
+			});
+	private final Set<VirtualFile> myChangedFiles = ContainerUtil.newConcurrentSet();
+	private final AtomicInteger myRebuildsCounter = new AtomicInteger();
+	private final AtomicInteger myDeltasCounter = new AtomicInteger();
+	private volatile NamesSnapshot KNOWN_SUBS = NamesSnapshot.EMPTY;
+	private volatile NamesSnapshot KNOWN_PACKAGES = NamesSnapshot.EMPTY;
+	private volatile boolean myRebuildRequested = true;
+	private volatile long myLastRebuildTime = 0;
+	private final AtomicLong myTotalRebuildTime = new AtomicLong();
+	private StringInterner myInterner = new StringInterner();
 	final Runnable cacheUpdaterWorker = new Runnable()
 	{
 		@Override
@@ -48,16 +116,14 @@ public class PerlNamesCache implements ProjectComponent
 		{
 			if (isTestMode() || !DumbService.isDumb(myProject))
 			{
-				Set<String> newSet = new THashSet<>();
-				newSet.addAll(PerlSubUtil.getDeclaredSubsNames(myProject));
-				newSet.addAll(PerlSubUtil.getDefinedSubsNames(myProject));
-				newSet.addAll(PerlGlobUtil.getDefinedGlobsNames(myProject));
-				KNOWN_SUBS = newSet;
-
-				newSet = new THashSet<>();
-				newSet.addAll(PerlPackageUtil.BUILT_IN_ALL);
-				newSet.addAll(PerlPackageUtil.getDefinedPackageNames(myProject));
-				KNOWN_PACKAGES = newSet;
+				if (myRebuildRequested)
+				{
+					rebuildAll();
+				}
+				else
+				{
+					applyChangedFiles();
+				}
 			}
 		}
 	};
@@ -83,12 +149,30 @@ public class PerlNamesCache implements ProjectComponent
 
 	public void forceCacheUpdate()
 	{
+		myRebuildRequested = true;
 		cacheUpdaterWorker.run();
 	}
 
 	@Override
 	public void initComponent()
 	{
+		PsiManager.getInstance(myProject).addPsiTreeChangeListener(new NamesCachePsiTreeChangeListener(), myProject);
+		MessageBusConnection connection = myProject.getMessageBus().connect(myProject);
+		connection.subscribe(VirtualFileManager.VFS_CHANGES, new NamesCacheVfsListener());
+		connection.subscribe(DumbService.DUMB_MODE, new DumbService.DumbModeListener()
+		{
+			@Override
+			public void enteredDumbMode()
+			{
+			}
+
+			@Override
+			public void exitDumbMode()
+			{
+				// indexes may be changed massively, deltas are useless here
+				myRebuildRequested = true;
+			}
+		});
 		StartupManager.getInstance(myProject).runWhenProjectIsInitialized(updaterThread::start);
 	}
 
@@ -105,6 +189,12 @@ public class PerlNamesCache implements ProjectComponent
 		return "Perl5 names cache";
 	}
 
+	/**
+	 * Returns current immutable snapshot of known subs names. Snapshot is shared and never modified, so it may be used
+	 * without copying
+	 *
+	 * @return set of canonical sub names
+	 */
 	public Set<String> getSubsNamesSet()
 	{
 		updaterRunner.update();
@@ -116,12 +206,658 @@ public class PerlNamesCache implements ProjectComponent
 		return myApplication != null && (myApplication.isUnitTestMode() || myApplication.isHeadlessEnvironment());
 	}
 
+	/**
+	 * Returns current immutable snapshot of known packages names. Snapshot is shared and never modified, so it may be used
+	 * without copying
+	 *
+	 * @return set of package names
+	 */
 	public Set<String> getPackagesNamesSet()
 	{
 		updaterRunner.update();
 		return KNOWN_PACKAGES;
 	}
 
+	/**
+	 * @return number of full rebuilds from indexes since project opening
+	 */
+	public int getRebuildsCount()
+	{
+		return myRebuildsCounter.get();
+	}
+
+	/**
+	 * @return number of per-file deltas applied to the snapshots
+	 */
+	public int getDeltasCount()
+	{
+		return myDeltasCounter.get();
+	}
+
+	/**
+	 * @return duration of the last full rebuild in milliseconds
+	 */
+	public long getLastRebuildTime()
+	{
+		return myLastRebuildTime;
+	}
+
+	/**
+	 * @return total duration of all full rebuilds in milliseconds
+	 */
+	public long getTotalRebuildTime()
+	{
+		return myTotalRebuildTime.get();
+	}
+
+	private boolean hasPendingChanges()
+	{
+		return myRebuildRequested || !myChangedFiles.isEmpty();
+	}
+
+	/**
+	 * Rebuilds snapshots from indexes
+	 */
+	private void rebuildAll()
+	{
+		myRebuildRequested = false;
+		// everything changed before this point is going to be in indexes
+		myChangedFiles.clear();
+		myPendingFilesNames.clear();
+		myRecentFilesNames.clear();
+
+		long startTime = System.currentTimeMillis();
+		StringInterner interner = new StringInterner();
+
+		Set<String> newSet = new THashSet<>();
+		internAll(interner, newSet, PerlSubUtil.getDeclaredSubsNames(myProject));
+		internAll(interner, newSet, PerlSubUtil.getDefinedSubsNames(myProject));
+		internAll(interner, newSet, PerlGlobUtil.getDefinedGlobsNames(myProject));
+		KNOWN_SUBS = new NamesSnapshot(newSet);
+
+		newSet = new THashSet<>();
+		internAll(interner, newSet, PerlPackageUtil.BUILT_IN_ALL);
+		internAll(interner, newSet, PerlPackageUtil.getDefinedPackageNames(myProject));
+		KNOWN_PACKAGES = new NamesSnapshot(newSet);
+
+		myInterner = interner;
+
+		myLastRebuildTime = System.currentTimeMillis() - startTime;
+		myTotalRebuildTime.addAndGet(myLastRebuildTime);
+		myRebuildsCounter.incrementAndGet();
+	}
+
+	/**
+	 * Applies collected per-file changes to the snapshots. Removed names are checked against indexes, because same name
+	 * may be defined in some other file
+	 */
+	private void applyChangedFiles()
+	{
+		if (myChangedFiles.isEmpty())
+		{
+			return;
+		}
+
+		PsiManager psiManager = PsiManager.getInstance(myProject);
+		GlobalSearchScope scope = GlobalSearchScope.allScope(myProject);
+		Set<String> addedSubs = new THashSet<>();
+		Set<String> addedPackages = new THashSet<>();
+		Set<String> removedSubs = new THashSet<>();
+		Set<String> removedPackages = new THashSet<>();
+
+		for (Iterator<VirtualFile> iterator = myChangedFiles.iterator(); iterator.hasNext(); )
+		{
+			VirtualFile virtualFile = iterator.next();
+			iterator.remove();
+
+			PsiFile psiFile = virtualFile.isValid() && scope.contains(virtualFile) ? psiManager.findFile(virtualFile) : null;
+			FileNames newNames = psiFile == null ? FileNames.EMPTY : FileNames.collect(psiFile);
+			AtomicNotNullLazyValue<FileNames> oldNamesValue = myPendingFilesNames.remove(virtualFile);
+			if (newNames.isEmpty())
+			{
+				myRecentFilesNames.remove(virtualFile);
+			}
+			else
+			{
+				myRecentFilesNames.put(virtualFile, newNames);
+			}
+
+			collectAdded(newNames.mySubs, KNOWN_SUBS, addedSubs);
+			collectAdded(newNames.myPackages, KNOWN_PACKAGES, addedPackages);
+
+			if (oldNamesValue != null)
+			{
+				FileNames oldNames = oldNamesValue.getValue();
+				collectRemoved(oldNames.mySubs, newNames.mySubs, removedSubs);
+				collectRemoved(oldNames.myPackages, newNames.myPackages, removedPackages);
+			}
+			myDeltasCounter.incrementAndGet();
+		}
+
+		removedSubs.removeAll(addedSubs);
+		removedSubs.removeIf(this::isSubDefined);
+		removedPackages.removeAll(addedPackages);
+		removedPackages.removeIf(this::isPackageDefined);
+
+		if (!addedSubs.isEmpty() || !removedSubs.isEmpty())
+		{
+			KNOWN_SUBS = KNOWN_SUBS.update(myInterner, addedSubs, removedSubs);
+		}
+		if (!addedPackages.isEmpty() || !removedPackages.isEmpty())
+		{
+			KNOWN_PACKAGES = KNOWN_PACKAGES.update(myInterner, addedPackages, removedPackages);
+		}
+	}
+
+	private boolean isSubDefined(@NotNull String canonicalName)
+	{
+		return !PerlSubUtil.getSubDefinitions(myProject, canonicalName).isEmpty() ||
+				!PerlSubUtil.getSubDeclarations(myProject, canonicalName).isEmpty() ||
+				!PerlGlobUtil.getGlobsDefinitions(myProject, canonicalName).isEmpty();
+	}
+
+	private boolean isPackageDefined(@NotNull String packageName)
+	{
+		return PerlPackageUtil.BUILT_IN_ALL.contains(packageName) ||
+				!PerlPackageUtil.getNamespaceDefinitions(myProject, packageName).isEmpty();
+	}
+
+	private static void collectRemoved(@NotNull Set<String> oldNames, @NotNull Set<String> newNames, @NotNull Set<String> result)
+	{
+		for (String name : oldNames)
+		{
+			if (!newNames.contains(name))
+			{
+				result.add(name);
+			}
+		}
+	}
+
+	private static void collectAdded(@NotNull Set<String> names, @NotNull Set<String> knownNames, @NotNull Set<String> result)
+	{
+		for (String name : names)
+		{
+			if (!knownNames.contains(name))
+			{
+				result.add(name);
+			}
+		}
+	}
+
+	private static void internAll(@NotNull StringInterner interner, @NotNull Set<String> target, @NotNull Collection<String> names)
+	{
+		for (String name : names)
+		{
+			target.add(interner.intern(name));
+		}
+	}
+
+	/**
+	 * Registers file as changed, remembering names defined in it before the first change. Names, collected by the last
+	 * applied delta, are reused if available. If AST is loaded, names are collected later from the old text, to avoid
+	 * parsing lazy elements under the write lock
+	 *
+	 * @param psiFile changed file
+	 */
+	private void beforeFileChange(@Nullable PsiFile psiFile)
+	{
+		if (!(psiFile instanceof PerlFile))
+		{
+			return;
+		}
+		VirtualFile virtualFile = psiFile.getViewProvider().getVirtualFile();
+		if (myPendingFilesNames.containsKey(virtualFile) || !isInScope(virtualFile))
+		{
+			return;
+		}
+
+		FileNames fileNames = myRecentFilesNames.get(virtualFile);
+		if (fileNames != null)
+		{
+			myPendingFilesNames.put(virtualFile, createNamesValue(fileNames));
+			return;
+		}
+
+		FileElement treeElement = psiFile instanceof PsiFileImpl ? ((PsiFileImpl) psiFile).getTreeElement() : null;
+		if (treeElement == null)
+		{
+			myPendingFilesNames.put(virtualFile, createNamesValue(FileNames.collect(psiFile)));
+		}
+		else
+		{
+			String fileText = treeElement.getText();
+			myPendingFilesNames.put(virtualFile, createNamesValue(virtualFile.getName(), psiFile.getFileType(), fileText));
+		}
+	}
+
+	private void fileChanged(@Nullable PsiFile psiFile)
+	{
+		if (psiFile instanceof PerlFile)
+		{
+			VirtualFile virtualFile = psiFile.getViewProvider().getVirtualFile();
+			if (myPendingFilesNames.containsKey(virtualFile) || isInScope(virtualFile))
+			{
+				myChangedFiles.add(virtualFile);
+			}
+		}
+	}
+
+	/**
+	 * Registers perl file, changed outside of the editor, remembering names from its content on disk
+	 *
+	 * @param virtualFile file, which content is going to be changed or which is going to be deleted
+	 */
+	private void beforeVirtualFileChange(@NotNull VirtualFile virtualFile)
+	{
+		if (!myPendingFilesNames.containsKey(virtualFile))
+		{
+			FileNames fileNames = myRecentFilesNames.get(virtualFile);
+			myPendingFilesNames.put(virtualFile, fileNames == null ?
+					createNamesValue(virtualFile.getName(), virtualFile.getFileType(), LoadTextUtil.loadText(virtualFile)) :
+					createNamesValue(fileNames)
+			);
+		}
+		myChangedFiles.add(virtualFile);
+	}
+
+	private boolean isInScope(@NotNull VirtualFile virtualFile)
+	{
+		return GlobalSearchScope.allScope(myProject).contains(virtualFile);
+	}
+
+	@NotNull
+	private static AtomicNotNullLazyValue<FileNames> createNamesValue(@NotNull FileNames fileNames)
+	{
+		return new AtomicNotNullLazyValue<FileNames>()
+		{
+			@NotNull
+			@Override
+			protected FileNames compute()
+			{
+				return fileNames;
+			}
+		};
+	}
+
+	@NotNull
+	private AtomicNotNullLazyValue<FileNames> createNamesValue(@NotNull String fileName,
+																@NotNull FileType fileType,
+																@NotNull CharSequence text)
+	{
+		return new AtomicNotNullLazyValue<FileNames>()
+		{
+			@NotNull
+			@Override
+			protected FileNames compute()
+			{
+				return FileNames.collect(PsiFileFactory.getInstance(myProject).createFileFromText(fileName, fileType, text));
+			}
+		};
+	}
+
+	/**
+	 * Immutable names set: shared base set and small sets of names added and removed by deltas
+	 */
+	protected static class NamesSnapshot extends AbstractSet<String>
+	{
+		static final NamesSnapshot EMPTY = new NamesSnapshot(Collections.emptySet());
+
+		private final Set<String> myBaseSet;
+		// names, missing in the base set
+		private final Set<String> myAddedSet;
+		// names of the base set, which are removed
+		private final Set<String> myRemovedSet;
+
+		public NamesSnapshot(@NotNull Set<String> baseSet)
+		{
+			this(baseSet, Collections.emptySet(), Collections.emptySet());
+		}
+
+		private NamesSnapshot(@NotNull Set<String> baseSet, @NotNull Set<String> addedSet, @NotNull Set<String> removedSet)
+		{
+			myBaseSet = baseSet;
+			myAddedSet = addedSet;
+			myRemovedSet = removedSet;
+		}
+
+		/**
+		 * Creates new snapshot with names added and removed. Added names should not be in this snapshot yet
+		 */
+		@NotNull
+		NamesSnapshot update(@NotNull StringInterner interner, @NotNull Set<String> addedNames, @NotNull Set<String> removedNames)
+		{
+			Set<String> newAddedSet = new THashSet<>(myAddedSet);
+			Set<String> newRemovedSet = new THashSet<>(myRemovedSet);
+
+			for (String name : removedNames)
+			{
+				if (!newAddedSet.remove(name) && myBaseSet.contains(name))
+				{
+					newRemovedSet.add(name);
+				}
+			}
+			for (String name : addedNames)
+			{
+				if (!newRemovedSet.remove(name))
+				{
+					newAddedSet.add(interner.intern(name));
+				}
+			}
+
+			if (newAddedSet.size() + newRemovedSet.size() > MAX_OVERLAY_SIZE)
+			{
+				Set<String> newBaseSet = new THashSet<>(myBaseSet);
+				newBaseSet.removeAll(newRemovedSet);
+				newBaseSet.addAll(newAddedSet);
+				return new NamesSnapshot(newBaseSet);
+			}
+
+			return new NamesSnapshot(myBaseSet, newAddedSet, newRemovedSet);
+		}
+
+		@Override
+		public boolean contains(Object o)
+		{
+			return myAddedSet.contains(o) || myBaseSet.contains(o) && !myRemovedSet.contains(o);
+		}
+
+		@NotNull
+		@Override
+		public Iterator<String> iterator()
+		{
+			Iterator<String> baseIterator = Collections.unmodifiableSet(myBaseSet).iterator();
+			return ContainerUtil.concatIterators(
+					myRemovedSet.isEmpty() ? baseIterator : FilteringIterator.create(baseIterator, name -> !myRemovedSet.contains(name)),
+					Collections.unmodifiableSet(myAddedSet).iterator()
+			);
+		}
+
+		@Override
+		public int size()
+		{
+			return myBaseSet.size() - myRemovedSet.size() + myAddedSet.size();
+		}
+	}
+
+	/**
+	 * Names defined in a single file, used to compute deltas. Names are the keys file stubs put into the indexes, same
+	 * as ones read by {@link #rebuildAll()}
+	 */
+	protected static class FileNames
+	{
+		static final FileNames EMPTY = new FileNames();
+
+		private static final PerlInternalIndexKeysProcessor INTERNAL_KEYS_FILTER = new PerlInternalIndexKeysProcessor();
+
+		private final Set<String> mySubs = new THashSet<>();
+		private final Set<String> myPackages = new THashSet<>();
+		private final IndexSink myIndexSink = new IndexSink()
+		{
+			@Override
+			public <K> void occurrence(@NotNull StubIndexKey<K, ?> indexKey, @NotNull K value)
+			{
+				if (PerlSubDefinitionsStubIndex.KEY.equals(indexKey) ||
+						PerlSubDeclarationStubIndex.KEY.equals(indexKey) ||
+						PerlGlobsStubIndex.KEY.equals(indexKey))
+				{
+					if (INTERNAL_KEYS_FILTER.process((String) value))
+					{
+						mySubs.add((String) value);
+					}
+				}
+				else if (PerlNamespaceDefinitionStubIndex.KEY.equals(indexKey))
+				{
+					myPackages.add((String) value);
+				}
+			}
+		};
+
+		/**
+		 * Collects names from stub trees of all perl roots of the file. Stub tree is built from AST if it's loaded
+		 */
+		@NotNull
+		static FileNames collect(@NotNull PsiFile file)
+		{
+			final FileNames result = new FileNames();
+			for (PsiFile root : file.getViewProvider().getAllFiles())
+			{
+				if (root instanceof PerlFile && root instanceof PsiFileImpl)
+				{
+					StubTree stubTree = ((PsiFileImpl) root).getStubTree();
+					if (stubTree == null)
+					{
+						stubTree = ((PsiFileImpl) root).calcStubTree();
+					}
+					result.addStubs(stubTree);
+				}
+			}
+			return result;
+		}
+
+		@SuppressWarnings("unchecked")
+		private void addStubs(@NotNull StubTree stubTree)
+		{
+			for (StubElement<?> stubElement : stubTree.getPlainList())
+			{
+				IStubElementType stubType = stubElement.getStubType();
+				if (stubType != null)
+				{
+					stubType.indexStub(stubElement, myIndexSink);
+				}
+			}
+		}
+
+		boolean isEmpty()
+		{
+			return mySubs.isEmpty() && myPackages.isEmpty();
+		}
+	}
+
+	protected class NamesCachePsiTreeChangeListener extends PsiTreeChangeAdapter
+	{
+		private void beforeChange(@NotNull PsiTreeChangeEvent event)
+		{
+			PsiFile file = event.getFile();
+			beforeFileChange(file == null && event.getChild() instanceof PsiFile ? (PsiFile) event.getChild() : file);
+		}
+
+		private void afterChange(@NotNull PsiTreeChangeEvent event)
+		{
+			PsiFile file = event.getFile();
+			fileChanged(file == null && event.getChild() instanceof PsiFile ? (PsiFile) event.getChild() : file);
+		}
+
+		@Override
+		public void beforeChildAddition(@NotNull PsiTreeChangeEvent event)
+		{
+			beforeChange(event);
+		}
+
+		@Override
+		public void beforeChildRemoval(@NotNull PsiTreeChangeEvent event)
+		{
+			beforeChange(event);
+			// file is going to be removed, there won't be after event for it
+			afterChange(event);
+		}
+
+		@Override
+		public void beforeChildReplacement(@NotNull PsiTreeChangeEvent event)
+		{
+			beforeChange(event);
+		}
+
+		@Override
+		public void beforeChildMovement(@NotNull PsiTreeChangeEvent event)
+		{
+			beforeChange(event);
+		}
+
+		@Override
+		public void beforeChildrenChange(@NotNull PsiTreeChangeEvent event)
+		{
+			beforeChange(event);
+		}
+
+		@Override
+		public void childAdded(@NotNull PsiTreeChangeEvent event)
+		{
+			afterChange(event);
+		}
+
+		@Override
+		public void childRemoved(@NotNull PsiTreeChangeEvent event)
+		{
+			afterChange(event);
+		}
+
+		@Override
+		public void childReplaced(@NotNull PsiTreeChangeEvent event)
+		{
+			afterChange(event);
+		}
+
+		@Override
+		public void childMoved(@NotNull PsiTreeChangeEvent event)
+		{
+			afterChange(event);
+		}
+
+		@Override
+		public void childrenChanged(@NotNull PsiTreeChangeEvent event)
+		{
+			afterChange(event);
+		}
+	}
+
+	/**
+	 * Collects perl files changed outside of the editor: VCS updates, external tools and files without loaded psi.
+	 * Content changes on save are covered by psi events
+	 */
+	protected class NamesCacheVfsListener extends BulkFileListener.Adapter
+	{
+		@Override
+		public void before(@NotNull List<? extends VFileEvent> events)
+		{
+			if (myRebuildRequested)
+			{
+				return;
+			}
+
+			List<VirtualFile> changedFiles = new ArrayList<>();
+			for (VFileEvent event : events)
+			{
+				if (event instanceof VFileContentChangeEvent && event.isFromSave())
+				{
+					continue;
+				}
+				if (event instanceof VFilePropertyChangeEvent)
+				{
+					if (isPerlFileTypeChange((VFilePropertyChangeEvent) event))
+					{
+						myRebuildRequested = true;
+						return;
+					}
+				}
+				else if (event instanceof VFileContentChangeEvent ||
+						event instanceof VFileDeleteEvent ||
+						event instanceof VFileMoveEvent)
+				{
+					VirtualFile file = event.getFile();
+					if (file == null || !isInScope(file))
+					{
+						continue;
+					}
+					if (file.isDirectory())
+					{
+						myRebuildRequested = true;
+						return;
+					}
+					if (file.getFileType() instanceof PerlFileType)
+					{
+						changedFiles.add(file);
+					}
+				}
+			}
+
+			if (changedFiles.size() > MAX_VFS_CHANGED_FILES)
+			{
+				myRebuildRequested = true;
+				return;
+			}
+
+			for (VirtualFile virtualFile : changedFiles)
+			{
+				beforeVirtualFileChange(virtualFile);
+			}
+		}
+
+		@Override
+		public void after(@NotNull List<? extends VFileEvent> events)
+		{
+			if (myRebuildRequested)
+			{
+				return;
+			}
+
+			List<VirtualFile> newFiles = new ArrayList<>();
+			for (VFileEvent event : events)
+			{
+				VirtualFile file = null;
+				if (event instanceof VFileCreateEvent || event instanceof VFileMoveEvent)
+				{
+					file = event.getFile();
+				}
+				else if (event instanceof VFileCopyEvent)
+				{
+					file = ((VFileCopyEvent) event).getNewParent().findChild(((VFileCopyEvent) event).getNewChildName());
+				}
+
+				if (file == null || !file.isValid() || myPendingFilesNames.containsKey(file) || !isInScope(file))
+				{
+					continue;
+				}
+				if (file.isDirectory())
+				{
+					myRebuildRequested = true;
+					return;
+				}
+				if (file.getFileType() instanceof PerlFileType)
+				{
+					newFiles.add(file);
+				}
+			}
+
+			if (newFiles.size() > MAX_VFS_CHANGED_FILES)
+			{
+				myRebuildRequested = true;
+				return;
+			}
+
+			// files had no names before, they just appeared in the project
+			for (VirtualFile virtualFile : newFiles)
+			{
+				myPendingFilesNames.put(virtualFile, createNamesValue(FileNames.EMPTY));
+				myChangedFiles.add(virtualFile);
+			}
+		}
+
+		/**
+		 * @return true if file is renamed to or from perl file type
+		 */
+		private boolean isPerlFileTypeChange(@NotNull VFilePropertyChangeEvent event)
+		{
+			if (!VirtualFile.PROP_NAME.equals(event.getPropertyName()))
+			{
+				return false;
+			}
+			FileTypeManager fileTypeManager = FileTypeManager.getInstance();
+			FileType oldFileType = fileTypeManager.getFileTypeByFileName((String) event.getOldValue());
+			FileType newFileType = fileTypeManager.getFileTypeByFileName((String) event.getNewValue());
+			return oldFileType != newFileType && (oldFileType instanceof PerlFileType || newFileType instanceof PerlFileType);
+		}
+	}
+
 	protected class NamesCacheUpdater implements Runnable
 	{
 		private static final long TTL = 1000;
@@ -154,7 +890,7 @@ public class PerlNamesCache implements ProjectComponent
 
 		public void update()
 		{
-			if (!isNotified && lastUpdate + TTL < System.currentTimeMillis())
+			if (!isNotified && hasPendingChanges() && lastUpdate + TTL < System.currentTimeMillis())
 			{
 				synchronized (this)
 				{
@@ -174,4 +910,4 @@ public class PerlNamesCache implements ProjectComponent
 		}
 	}
 
-}
\ No newline at end of file
+}
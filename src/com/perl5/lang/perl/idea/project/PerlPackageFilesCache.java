@@ -0,0 +1,263 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.idea.project;
+
+import com.intellij.ProjectTopics;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootAdapter;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.util.Processor;
+import com.intellij.util.messages.MessageBusConnection;
+import com.perl5.lang.perl.PerlScopes;
+import com.perl5.lang.perl.fileTypes.PerlFileTypePackage;
+import com.perl5.lang.perl.util.PerlPackageUtil;
+import gnu.trove.THashMap;
+import gnu.trove.THashSet;
+import gnu.trove.TObjectIntHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Project-wide map of package files in class roots. Maps relative .pm paths to the files, respecting class roots order,
+ * and holds names of all packages available as files. Built lazily from the file type index and dropped on roots changes
+ * or on vfs structure changes affecting .pm files or directories. Modification count is incremented on each drop
+ */
+public class PerlPackageFilesCache implements ModificationTracker
+{
+	private final Project myProject;
+	private final AtomicInteger myModificationCounter = new AtomicInteger();
+	private volatile PackageFiles myPackageFiles;
+
+	public PerlPackageFilesCache(@NotNull Project project)
+	{
+		myProject = project;
+
+		MessageBusConnection connection = project.getMessageBus().connect(project);
+		connection.subscribe(ProjectTopics.PROJECT_ROOTS, new ModuleRootAdapter()
+		{
+			@Override
+			public void rootsChanged(ModuleRootEvent event)
+			{
+				dropCache();
+			}
+		});
+		connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener.Adapter()
+		{
+			@Override
+			public void after(@NotNull List<? extends VFileEvent> events)
+			{
+				for (VFileEvent event : events)
+				{
+					if (isStructureEvent(event))
+					{
+						dropCache();
+						return;
+					}
+				}
+			}
+		});
+	}
+
+	public static PerlPackageFilesCache getInstance(@NotNull Project project)
+	{
+		return ServiceManager.getService(project, PerlPackageFilesCache.class);
+	}
+
+	private static boolean isStructureEvent(@NotNull VFileEvent event)
+	{
+		if (event instanceof VFileContentChangeEvent)
+		{
+			return false;
+		}
+		if (event instanceof VFileCreateEvent && ((VFileCreateEvent) event).isDirectory())
+		{
+			return true;
+		}
+		VirtualFile file = event.getFile();
+		return file == null || file.isDirectory() || event.getPath().endsWith(".pm");
+	}
+
+	@Override
+	public long getModificationCount()
+	{
+		return myModificationCounter.get();
+	}
+
+	public void dropCache()
+	{
+		myModificationCounter.incrementAndGet();
+		myPackageFiles = null;
+	}
+
+	/**
+	 * Finds package file by relative path in class roots; first class root containing the file wins
+	 *
+	 * @param relativePath relative path, like Foo/Bar.pm
+	 * @return package file or null if not found
+	 */
+	@Nullable
+	public VirtualFile getPackageFile(@NotNull String relativePath)
+	{
+		PackageFiles packageFiles = getPackageFiles();
+		if (packageFiles == null)
+		{
+			return findInClassRoots(relativePath);
+		}
+
+		VirtualFile result = packageFiles.myFilesByPath.get(relativePath);
+		if (result != null && !result.isValid())
+		{
+			dropCache();
+			return findInClassRoots(relativePath);
+		}
+		return result;
+	}
+
+	/**
+	 * Processes canonical names of all packages available as files in class roots
+	 *
+	 * @param processor names processor
+	 * @return false if processing was stopped by processor
+	 */
+	public boolean processPackageNames(@NotNull Processor<String> processor)
+	{
+		PackageFiles packageFiles = getPackageFiles();
+		if (packageFiles == null)
+		{
+			return true;
+		}
+
+		for (String packageName : packageFiles.myPackageNames)
+		{
+			if (!processor.process(packageName))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Nullable
+	private VirtualFile findInClassRoots(@NotNull String relativePath)
+	{
+		for (VirtualFile classRoot : ProjectRootManager.getInstance(myProject).orderEntries().getClassesRoots())
+		{
+			VirtualFile targetFile = classRoot.findFileByRelativePath(relativePath);
+			if (targetFile != null)
+			{
+				return targetFile;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return cached package files or null if they are not available, e.g. in dumb mode
+	 */
+	@Nullable
+	private PackageFiles getPackageFiles()
+	{
+		PackageFiles packageFiles = myPackageFiles;
+		if (packageFiles == null)
+		{
+			if (DumbService.isDumb(myProject))
+			{
+				return null;
+			}
+			int modificationCount = myModificationCounter.get();
+			packageFiles = buildPackageFiles();
+			if (modificationCount == myModificationCounter.get())
+			{
+				myPackageFiles = packageFiles;
+			}
+		}
+		return packageFiles;
+	}
+
+	@NotNull
+	private PackageFiles buildPackageFiles()
+	{
+		VirtualFile[] classRoots = ProjectRootManager.getInstance(myProject).orderEntries().getClassesRoots();
+		TObjectIntHashMap<VirtualFile> rootsOrder = new TObjectIntHashMap<VirtualFile>();
+		for (int i = classRoots.length - 1; i >= 0; i--)
+		{
+			rootsOrder.put(classRoots[i], i);
+		}
+
+		Map<String, VirtualFile> filesByPath = new THashMap<String, VirtualFile>();
+		TObjectIntHashMap<String> pathsOrder = new TObjectIntHashMap<String>();
+		Set<String> packageNames = new THashSet<String>();
+
+		for (VirtualFile file : FileTypeIndex.getFiles(PerlFileTypePackage.INSTANCE, PerlScopes.getProjectAndLibrariesScope(myProject)))
+		{
+			for (VirtualFile classRoot = file.getParent(); classRoot != null; classRoot = classRoot.getParent())
+			{
+				if (!rootsOrder.containsKey(classRoot))
+				{
+					continue;
+				}
+
+				String relativePath = VfsUtil.getRelativePath(file, classRoot);
+				if (relativePath == null)
+				{
+					continue;
+				}
+
+				packageNames.add(PerlPackageUtil.getPackageNameByPath(relativePath));
+
+				int rootOrder = rootsOrder.get(classRoot);
+				if (!pathsOrder.containsKey(relativePath) || pathsOrder.get(relativePath) > rootOrder)
+				{
+					pathsOrder.put(relativePath, rootOrder);
+					filesByPath.put(relativePath, file);
+				}
+			}
+		}
+
+		return new PackageFiles(filesByPath, packageNames);
+	}
+
+	private static class PackageFiles
+	{
+		private final Map<String, VirtualFile> myFilesByPath;
+		private final Set<String> myPackageNames;
+
+		public PackageFiles(@NotNull Map<String, VirtualFile> filesByPath, @NotNull Set<String> packageNames)
+		{
+			myFilesByPath = Collections.unmodifiableMap(filesByPath);
+			myPackageNames = Collections.unmodifiableSet(packageNames);
+		}
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.idea.project;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Condition;
+import com.intellij.util.ArrayUtil;
+import com.intellij.util.containers.ContainerUtil;
+import com.perl5.lang.perl.extensions.PerlCompletionElementsProvider;
+import com.perl5.lang.perl.psi.PerlGlobVariable;
+import com.perl5.lang.perl.psi.PerlSubBase;
+import com.perl5.lang.perl.util.PerlSubUtil;
+import gnu.trove.THashSet;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Project-level cache of packages members names: subs definitions, declarations and globs. Lets completion check
+ * names against the prefix before loading members of the package. Cache is dropped on any change of
+ * {@link PerlPackageMembersTracker}, so added, removed and renamed members are seen by the next completion
+ */
+public class PerlPackageMemberNamesCache
+{
+	private final Project myProject;
+	private volatile NamesTable myNamesTable = new NamesTable(-1);
+
+	public PerlPackageMemberNamesCache(@NotNull Project project)
+	{
+		myProject = project;
+	}
+
+	public static PerlPackageMemberNamesCache getInstance(@NotNull Project project)
+	{
+		return ServiceManager.getService(project, PerlPackageMemberNamesCache.class);
+	}
+
+	/**
+	 * Checks if package may have members, acceptable by name condition. Packages with members, providing own
+	 * completion variants, are always acceptable
+	 *
+	 * @param packageName   canonical package name
+	 * @param nameCondition members names condition, e.g. completion prefix matcher
+	 * @return false if there are definitely no such members
+	 */
+	public boolean hasMatchingMembers(@NotNull String packageName, @NotNull Condition<String> nameCondition)
+	{
+		PackageMemberNames memberNames = getPackageMemberNames(packageName);
+		if (memberNames.myHasCompletionProviders)
+		{
+			return true;
+		}
+		for (String name : memberNames.myNames)
+		{
+			if (nameCondition.value(name))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@NotNull
+	private PackageMemberNames getPackageMemberNames(@NotNull String packageName)
+	{
+		PerlPackageMembersTracker membersTracker = PerlPackageMembersTracker.getInstance(myProject);
+		long modificationCount = membersTracker.getModificationCount();
+
+		NamesTable namesTable = myNamesTable;
+		if (namesTable.myModificationCount != modificationCount)
+		{
+			myNamesTable = namesTable = new NamesTable(modificationCount);
+		}
+
+		PackageMemberNames result = namesTable.myPackagesMemberNames.get(packageName);
+		if (result == null)
+		{
+			result = computePackageMemberNames(packageName);
+			if (modificationCount == membersTracker.getModificationCount() && !DumbService.isDumb(myProject))
+			{
+				namesTable.myPackagesMemberNames.put(packageName, result);
+			}
+		}
+		return result;
+	}
+
+	@NotNull
+	private PackageMemberNames computePackageMemberNames(@NotNull String packageName)
+	{
+		final Set<String> names = new THashSet<String>();
+		final boolean[] hasCompletionProviders = new boolean[1];
+
+		PerlSubUtil.processPackageMembers(myProject, packageName, member -> {
+			if (member instanceof PerlCompletionElementsProvider)
+			{
+				hasCompletionProviders[0] = true;
+			}
+
+			String name = null;
+			if (member instanceof PerlSubBase)
+			{
+				name = ((PerlSubBase) member).getSubName();
+			}
+			else if (member instanceof PerlGlobVariable)
+			{
+				name = ((PerlGlobVariable) member).getName();
+			}
+
+			if (name != null)
+			{
+				names.add(name);
+			}
+			return true;
+		});
+
+		return new PackageMemberNames(ArrayUtil.toStringArray(names), hasCompletionProviders[0]);
+	}
+
+	private static class PackageMemberNames
+	{
+		private final String[] myNames;
+		private final boolean myHasCompletionProviders;
+
+		public PackageMemberNames(@NotNull String[] names, boolean hasCompletionProviders)
+		{
+			myNames = names;
+			myHasCompletionProviders = hasCompletionProviders;
+		}
+	}
+
+	private static class NamesTable
+	{
+		private final long myModificationCount;
+		private final Map<String, PackageMemberNames> myPackagesMemberNames = ContainerUtil.newConcurrentMap();
+
+		public NamesTable(long modificationCount)
+		{
+			myModificationCount = modificationCount;
+		}
+	}
+}
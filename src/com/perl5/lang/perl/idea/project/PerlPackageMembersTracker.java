@@ -0,0 +1,233 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.idea.project;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.psi.*;
+import com.intellij.psi.impl.PsiTreeChangeEventImpl;
+import com.intellij.psi.search.PsiElementProcessor;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.perl5.lang.perl.psi.*;
+import com.perl5.lang.perl.psi.mro.PerlLinearIsaCache;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Modification tracker for packages members: subs definitions and declarations, their names, signatures and
+ * annotations, like #@returns, and assigned globs. Members are looked up through namespaces, so modification count
+ * includes {@link PerlLinearIsaCache} one, covering namespaces, external changes, roots changes and dumb mode.
+ * Typing inside sub blocks, not touching nested members, keeps the count.
+ */
+public class PerlPackageMembersTracker implements ModificationTracker
+{
+	@SuppressWarnings("unchecked")
+	private static final Class<? extends PsiElement>[] MEMBER_ELEMENTS = new Class[]{
+			PerlSubBase.class,
+			PerlGlobVariable.class,
+			PerlAnnotation.class
+	};
+
+	@SuppressWarnings("unchecked")
+	private static final Class<? extends PerlAnnotation>[] SUB_ANNOTATIONS = new Class[]{
+			PsiPerlAnnotationReturns.class,
+			PsiPerlAnnotationMethod.class,
+			PsiPerlAnnotationOverride.class,
+			PsiPerlAnnotationAbstract.class,
+			PsiPerlAnnotationDeprecated.class
+	};
+
+	private final Project myProject;
+	private final AtomicLong myModificationCounter = new AtomicLong();
+
+	public PerlPackageMembersTracker(@NotNull Project project)
+	{
+		myProject = project;
+		PsiManager.getInstance(project).addPsiTreeChangeListener(new MembersPsiTreeChangeListener(), project);
+	}
+
+	public static PerlPackageMembersTracker getInstance(@NotNull Project project)
+	{
+		return ServiceManager.getService(project, PerlPackageMembersTracker.class);
+	}
+
+	@Override
+	public long getModificationCount()
+	{
+		return myModificationCounter.get() + PerlLinearIsaCache.getInstance(myProject).getModificationCount();
+	}
+
+	private class MembersPsiTreeChangeListener extends PsiTreeChangeAdapter
+	{
+		@Override
+		public void childAdded(@NotNull PsiTreeChangeEvent event)
+		{
+			processEvent(event, event.getChild());
+		}
+
+		@Override
+		public void childRemoved(@NotNull PsiTreeChangeEvent event)
+		{
+			processEvent(event, event.getChild());
+		}
+
+		@Override
+		public void childReplaced(@NotNull PsiTreeChangeEvent event)
+		{
+			processEvent(event, event.getOldChild(), event.getNewChild());
+		}
+
+		@Override
+		public void childMoved(@NotNull PsiTreeChangeEvent event)
+		{
+			processEvent(event, event.getChild());
+		}
+
+		@Override
+		public void childrenChanged(@NotNull PsiTreeChangeEvent event)
+		{
+			// generic events duplicate specific ones, fired for the same change
+			if (event instanceof PsiTreeChangeEventImpl && ((PsiTreeChangeEventImpl) event).isGenericChange())
+			{
+				return;
+			}
+			processEvent(event);
+		}
+
+		@Override
+		public void propertyChanged(@NotNull PsiTreeChangeEvent event)
+		{
+			processEvent(event, event.getElement());
+		}
+
+		private void processEvent(@NotNull PsiTreeChangeEvent event, @Nullable PsiElement... changedElements)
+		{
+			PsiFile file = event.getFile();
+			if (file != null && !(file instanceof PerlFile))
+			{
+				return;
+			}
+
+			if (isMemberPart(event.getParent()) || containsMembers(event.getParent(), changedElements))
+			{
+				myModificationCounter.incrementAndGet();
+			}
+		}
+
+		/**
+		 * @return true if element is a part of member, outside of sub block: sub name, signature, sub annotation or
+		 * assigned glob
+		 */
+		private boolean isMemberPart(@Nullable PsiElement element)
+		{
+			if (element == null || element instanceof PsiFile)
+			{
+				return false;
+			}
+
+			// assignment is being added to or removed from the glob
+			if (element instanceof PsiPerlAssignExpr && element.getFirstChild() instanceof PerlGlobVariable)
+			{
+				return !isInsideSubBlock(element);
+			}
+
+			PsiElement member = PsiTreeUtil.getNonStrictParentOfType(element, MEMBER_ELEMENTS);
+			if (member instanceof PerlSubDefinitionBase)
+			{
+				PsiElement subBlock = ((PerlSubDefinitionBase) member).getBlockSmart();
+				return subBlock == null || !PsiTreeUtil.isAncestor(subBlock, element, false);
+			}
+			return member != null && isMember(member);
+		}
+
+		/**
+		 * @return true if some of elements is or contains a member. Removed elements are detached from the tree, so
+		 * only subs are counted when changes are made inside a sub block
+		 */
+		private boolean containsMembers(@Nullable PsiElement parent, @Nullable PsiElement... elements)
+		{
+			if (elements == null)
+			{
+				return false;
+			}
+			boolean subsOnly = parent != null && !(parent instanceof PsiFile) && isInsideSubBlock(parent);
+			PsiElementProcessor<PsiElement> processor = run -> subsOnly ? !(run instanceof PerlSubBase) : !isMember(run);
+			for (PsiElement element : elements)
+			{
+				if (element != null && !PsiTreeUtil.processElements(element, processor))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @return true if element is a sub, or glob assignment target or sub annotation outside of sub blocks. Locals,
+		 * glob references and variables annotations inside subs are not members
+		 */
+		private boolean isMember(@NotNull PsiElement element)
+		{
+			if (element instanceof PerlSubBase)
+			{
+				return true;
+			}
+			if (element instanceof PerlGlobVariable)
+			{
+				return ((PerlGlobVariable) element).isLeftSideOfAssignment() && !isInsideSubBlock(element);
+			}
+			if (element instanceof PerlAnnotation)
+			{
+				return isSubAnnotation(element) && !isInsideSubBlock(element);
+			}
+			return false;
+		}
+
+		private boolean isSubAnnotation(@NotNull PsiElement element)
+		{
+			for (Class<? extends PerlAnnotation> annotationClass : SUB_ANNOTATIONS)
+			{
+				if (annotationClass.isInstance(element))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @return true if element is strictly inside the block of some sub definition
+		 */
+		private boolean isInsideSubBlock(@NotNull PsiElement element)
+		{
+			for (PerlSubDefinitionBase subDefinition = PsiTreeUtil.getParentOfType(element, PerlSubDefinitionBase.class, false);
+				 subDefinition != null;
+				 subDefinition = PsiTreeUtil.getParentOfType(subDefinition, PerlSubDefinitionBase.class, true))
+			{
+				PsiElement subBlock = subDefinition.getBlockSmart();
+				if (subBlock != null && PsiTreeUtil.isAncestor(subBlock, element, false))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.idea.run.debugger;
+
+import com.intellij.openapi.vfs.CharsetToolkit;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reads newline-terminated frames of the debugger protocol from the socket stream. Data is read by chunks into the
+ * reusable buffer and frames are exposed as readers over the buffer, without intermediate copies.
+ * Frame data is valid until the next {@link #readFrame()} invocation
+ */
+public class PerlDebugFrameReader
+{
+	private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+	private final InputStream myInputStream;
+	private final long myStartTime = System.currentTimeMillis();
+	private byte[] myBuffer = new byte[INITIAL_BUFFER_SIZE];
+	// start of the data, not consumed by frames yet
+	private int myDataStart = 0;
+	// end of the data, read from the stream
+	private int myDataEnd = 0;
+	// offset, from which we should continue searching for the frame end
+	private int myScanOffset = 0;
+
+	private int myFrameStart = 0;
+	private int myFrameEnd = 0;
+
+	private long myBytesCounter = 0;
+	private long myFramesCounter = 0;
+
+	public PerlDebugFrameReader(@NotNull InputStream inputStream)
+	{
+		myInputStream = inputStream;
+	}
+
+	/**
+	 * Reads next frame from the stream, blocking if necessary
+	 *
+	 * @return false if stream has been closed
+	 * @throws IOException on read errors
+	 */
+	public boolean readFrame() throws IOException
+	{
+		while (true)
+		{
+			for (; myScanOffset < myDataEnd; myScanOffset++)
+			{
+				if (myBuffer[myScanOffset] == '\n')
+				{
+					myFrameStart = myDataStart;
+					myFrameEnd = myScanOffset;
+					myDataStart = myScanOffset = myScanOffset + 1;
+					myFramesCounter++;
+					return true;
+				}
+			}
+
+			if (!fillBuffer())
+			{
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Moves unconsumed data to the buffer start, grows buffer if necessary and reads next chunk
+	 *
+	 * @return false if stream has been closed
+	 */
+	private boolean fillBuffer() throws IOException
+	{
+		if (myDataStart > 0)
+		{
+			int dataLength = myDataEnd - myDataStart;
+			System.arraycopy(myBuffer, myDataStart, myBuffer, 0, dataLength);
+			myScanOffset -= myDataStart;
+			myDataEnd = dataLength;
+			myDataStart = 0;
+		}
+
+		if (myDataEnd == myBuffer.length)
+		{
+			myBuffer = Arrays.copyOf(myBuffer, myBuffer.length * 2);
+		}
+
+		int bytesRead = myInputStream.read(myBuffer, myDataEnd, myBuffer.length - myDataEnd);
+		if (bytesRead < 0)
+		{
+			return false;
+		}
+		myDataEnd += bytesRead;
+		myBytesCounter += bytesRead;
+		return true;
+	}
+
+	/**
+	 * @return length of the current frame in bytes
+	 */
+	public int getFrameLength()
+	{
+		return myFrameEnd - myFrameStart;
+	}
+
+	/**
+	 * @return reader for the current frame, backed by the buffer
+	 */
+	@NotNull
+	public Reader getFrameReader()
+	{
+		return new InputStreamReader(new ByteArrayInputStream(myBuffer, myFrameStart, getFrameLength()), CharsetToolkit.UTF8_CHARSET);
+	}
+
+	/**
+	 * @return current frame as a string, for debugging purposes
+	 */
+	@NotNull
+	public String getFrameAsString()
+	{
+		return new String(myBuffer, myFrameStart, getFrameLength(), CharsetToolkit.UTF8_CHARSET);
+	}
+
+	public long getBytesCount()
+	{
+		return myBytesCounter;
+	}
+
+	public long getFramesCount()
+	{
+		return myFramesCounter;
+	}
+
+	public double getBytesPerSecond()
+	{
+		return perSecond(myBytesCounter);
+	}
+
+	public double getFramesPerSecond()
+	{
+		return perSecond(myFramesCounter);
+	}
+
+	private double perSecond(long counter)
+	{
+		long elapsedTime = System.currentTimeMillis() - myStartTime;
+		return elapsedTime > 0 ? counter * 1000. / elapsedTime : 0;
+	}
+}
@@ -19,7 +19,9 @@ package com.perl5.lang.perl.idea.run.debugger;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import com.intellij.execution.ExecutionException;
 import com.intellij.execution.ExecutionResult;
 import com.intellij.execution.actions.StopProcessAction;
@@ -28,7 +30,6 @@ import com.intellij.execution.ui.ConsoleViewContentType;
 import com.intellij.openapi.vfs.CharsetToolkit;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.concurrency.Semaphore;
-import com.intellij.util.containers.ByteArrayList;
 import com.intellij.xdebugger.XDebugSession;
 import com.perl5.lang.perl.idea.run.debugger.breakpoints.PerlLineBreakPointDescriptor;
 import com.perl5.lang.perl.idea.run.debugger.protocol.*;
@@ -45,8 +46,6 @@ import java.net.Socket;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -55,7 +54,6 @@ import java.util.concurrent.locks.ReentrantLock;
 public class PerlDebugThread extends Thread
 {
 	public static final boolean DEV_MODE = false; //ApplicationManager.getApplication().isInternal();
-	private static Executor ourExecutor = Executors.newSingleThreadExecutor();
 	private final ExecutionResult myExecutionResult;
 	private final Gson myGson;
 	private final PerlDebugProfileState myDebugProfileState;
@@ -66,6 +64,7 @@ public class PerlDebugThread extends Thread
 	private ServerSocket myServerSocket;
 	private OutputStream myOutputStream;
 	private InputStream myInputStream;
+	private PerlDebugFrameReader myFrameReader;
 	private boolean myStop = false;
 	private List<PerlLineBreakPointDescriptor> breakpointsDescriptorsQueue = new CopyOnWriteArrayList<PerlLineBreakPointDescriptor>();
 	private boolean isReady = false;
@@ -73,7 +72,11 @@ public class PerlDebugThread extends Thread
 	private ConcurrentHashMap<Integer, PerlDebuggingTransactionHandler> transactionsMap = new ConcurrentHashMap<Integer, PerlDebuggingTransactionHandler>();
 	private ReentrantLock lock = new ReentrantLock();
 	private PerlRemoteFileSystem myPerlRemoteFileSystem = PerlRemoteFileSystem.getInstance();
+	private final PerlRemoteSourcesCache myRemoteSourcesCache = PerlRemoteSourcesCache.getInstance();
+	private final int myInitialCacheHits = myRemoteSourcesCache.getHitsCount();
+	private final int myInitialCacheMisses = myRemoteSourcesCache.getMissesCount();
 	private PerlDebugOptions myPerlDebugOptions;
+	private final PerlDebuggingEventsDispatcher myEventsDispatcher;
 
 	public PerlDebugThread(XDebugSession session, PerlDebugProfileState state, ExecutionResult executionResult)
 	{
@@ -86,6 +89,7 @@ public class PerlDebugThread extends Thread
 		myEvalsListPanel = new PerlScriptsPanel(session.getProject(), this);
 		myPerlRemoteFileSystem.dropFiles();
 		myPerlDebugOptions = state.getDebugOptions();
+		myEventsDispatcher = new PerlDebuggingEventsDispatcher(session.getSessionName());
 	}
 
 	public void queueLineBreakpointDescriptor(PerlLineBreakPointDescriptor descriptor)
@@ -138,42 +142,27 @@ public class PerlDebugThread extends Thread
 			myOutputStream = mySocket.getOutputStream();
 			myInputStream = mySocket.getInputStream();
 
-			ByteArrayList response = new ByteArrayList();
+			myFrameReader = new PerlDebugFrameReader(myInputStream);
 
 			while (!myStop)
 			{
-				response.clear();
-
 				if (DEV_MODE)
 				{
 					System.err.println("\nReading data");
 				}
 
-				// reading bytes
-				while (myInputStream != null)
+				if (!myFrameReader.readFrame())
 				{
-					int dataByte = myInputStream.read();
-					if (dataByte == '\n')
-					{
-						break;
-					}
-					else if (dataByte == -1)
-					{
-						return;
-					}
-					else
-					{
-						response.add((byte) dataByte);
-					}
+					return;
 				}
 
 				if (DEV_MODE)
 				{
-					System.err.println("Got response " + response.size());
-					System.err.println(new String(response.toNativeArray(), CharsetToolkit.UTF8_CHARSET));
+					System.err.println("Got response " + myFrameReader.getFrameLength());
+					System.err.println(myFrameReader.getFrameAsString());
 				}
 
-				processResponse(response);
+				processResponse(myFrameReader);
 			}
 
 		}
@@ -195,10 +184,9 @@ public class PerlDebugThread extends Thread
 		}
 	}
 
-	private void processResponse(ByteArrayList responseBytes)
+	private void processResponse(PerlDebugFrameReader frameReader)
 	{
-		final String response = new String(responseBytes.toNativeArray(), CharsetToolkit.UTF8_CHARSET);
-		final PerlDebuggingEvent newEvent = myGson.fromJson(response, PerlDebuggingEvent.class);
+		final PerlDebuggingEvent newEvent = myGson.fromJson(new JsonReader(frameReader.getFrameReader()), PerlDebuggingEvent.class);
 
 		if (newEvent != null)
 		{
@@ -218,8 +206,7 @@ public class PerlDebugThread extends Thread
 			{
 				newEvent.setDebugSession(mySession);
 				newEvent.setDebugThread(this);
-				ourExecutor.execute(newEvent);
-//				ApplicationManager.getApplication().executeOnPooledThread()invokeLater( // executeOnPooledThread - fixme concurrency problems
+				myEventsDispatcher.dispatch(newEvent);
 			}
 		}
 	}
@@ -290,6 +277,20 @@ public class PerlDebugThread extends Thread
 		return mySocket;
 	}
 
+	public PerlDebuggingEventsDispatcher getEventsDispatcher()
+	{
+		return myEventsDispatcher;
+	}
+
+	/**
+	 * @return frames reader of the current session, may be used to get session traffic statistics
+	 */
+	@Nullable
+	public PerlDebugFrameReader getFrameReader()
+	{
+		return myFrameReader;
+	}
+
 	public void setStop()
 	{
 		if (myStop)
@@ -344,9 +345,31 @@ public class PerlDebugThread extends Thread
 			e.printStackTrace();
 		}
 
+		myEventsDispatcher.shutdown();
+
 		StopProcessAction.stopProcess(myExecutionResult.getProcessHandler());
 
 		((ConsoleView) myExecutionResult.getExecutionConsole()).print("Disconnected\n", ConsoleViewContentType.SYSTEM_OUTPUT);
+
+		int cacheHits = myRemoteSourcesCache.getHitsCount() - myInitialCacheHits;
+		int cacheMisses = myRemoteSourcesCache.getMissesCount() - myInitialCacheMisses;
+		if (cacheHits + cacheMisses > 0)
+		{
+			((ConsoleView) myExecutionResult.getExecutionConsole()).print(
+					"Remote sources cache: " + cacheHits + " hits, " + cacheMisses + " misses\n", ConsoleViewContentType.SYSTEM_OUTPUT);
+		}
+
+		if (DEV_MODE && myFrameReader != null)
+		{
+			System.err.println(String.format("Received %d bytes in %d frames; %.1f bytes/s, %.1f frames/s",
+					myFrameReader.getBytesCount(), myFrameReader.getFramesCount(),
+					myFrameReader.getBytesPerSecond(), myFrameReader.getFramesPerSecond()
+			));
+			System.err.println(String.format("Dispatched %d events; average latency %.2f ms, max latency %.2f ms",
+					myEventsDispatcher.getDispatchedCount(),
+					myEventsDispatcher.getAverageDispatchLatency(), myEventsDispatcher.getMaxDispatchLatency()
+			));
+		}
 	}
 
 	protected Gson createGson()
@@ -378,7 +401,7 @@ public class PerlDebugThread extends Thread
 	}
 
 	@Nullable
-	public VirtualFile loadRemoteSource(String filePath)
+	public VirtualFile loadRemoteSource(final String filePath)
 	{
 		if (DEV_MODE)
 		{
@@ -389,13 +412,33 @@ public class PerlDebugThread extends Thread
 
 		final String[] response = new String[]{"# Source could not be loaded..."};
 
+		// evals are not persistent between runs
+		final boolean isCacheable = !filePath.startsWith(PerlStackFrameDescriptor.EVAL_PREFIX);
+		final String cachedHash = isCacheable ? myRemoteSourcesCache.getSourceHash(filePath) : null;
+
 		PerlDebuggingTransactionHandler perlDebuggingTransactionHandler = new PerlDebuggingTransactionHandler()
 		{
 
 			@Override
 			public void run(JsonObject eventObject, JsonDeserializationContext jsonDeserializationContext)
 			{
-				response[0] = eventObject.getAsJsonPrimitive("data").getAsString();
+				JsonElement data = eventObject.get("data");
+				if (data != null && !data.isJsonNull())
+				{
+					response[0] = data.getAsString();
+					if (isCacheable)
+					{
+						myRemoteSourcesCache.putSource(filePath, response[0]);
+					}
+				}
+				else if (cachedHash != null)
+				{
+					String cachedSource = myRemoteSourcesCache.getSource(filePath, cachedHash);
+					if (cachedSource != null)
+					{
+						response[0] = cachedSource;
+					}
+				}
 				responseSemaphore.up();
 
 			}
@@ -403,7 +446,7 @@ public class PerlDebugThread extends Thread
 
 		if (mySocket != null)
 		{
-			sendCommandAndGetResponse("get_source", new PerlSourceRequestDescriptor(filePath), perlDebuggingTransactionHandler);
+			sendCommandAndGetResponse("get_source", new PerlSourceRequestDescriptor(filePath, cachedHash), perlDebuggingTransactionHandler);
 			responseSemaphore.waitFor(2000);
 		}
 
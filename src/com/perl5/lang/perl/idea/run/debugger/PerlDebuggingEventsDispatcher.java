@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.idea.run.debugger;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.perl5.lang.perl.idea.run.debugger.protocol.PerlDebuggingEvent;
+import com.perl5.lang.perl.idea.run.debugger.protocol.PerlDebuggingEventKind;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-session debugging events pipeline. Each event kind has its own sequential queue, so events of the same kind are
+ * processed in order they've been received, while independent kinds don't wait for each other
+ */
+public class PerlDebuggingEventsDispatcher
+{
+	private static final Logger LOG = Logger.getInstance(PerlDebuggingEventsDispatcher.class);
+
+	private final Map<PerlDebuggingEventKind, EventsQueue> myQueues = new EnumMap<>(PerlDebuggingEventKind.class);
+	private final AtomicLong myDispatchedCounter = new AtomicLong();
+	private final AtomicLong myTotalLatency = new AtomicLong();
+	private final AtomicLong myMaxLatency = new AtomicLong();
+
+	public PerlDebuggingEventsDispatcher(@NotNull String sessionName)
+	{
+		for (PerlDebuggingEventKind eventKind : PerlDebuggingEventKind.values())
+		{
+			myQueues.put(eventKind, new EventsQueue(sessionName + ": " + eventKind));
+		}
+	}
+
+	/**
+	 * Queues event for processing
+	 *
+	 * @param event event to process
+	 */
+	public void dispatch(@NotNull PerlDebuggingEvent event)
+	{
+		myQueues.get(event.getEventKind()).submit(event);
+	}
+
+	/**
+	 * Stops processing threads, events queued already are going to be processed
+	 */
+	public void shutdown()
+	{
+		for (EventsQueue queue : myQueues.values())
+		{
+			queue.myExecutor.shutdown();
+		}
+	}
+
+	/**
+	 * @return number of events, waiting for processing in all queues
+	 */
+	public int getQueueDepth()
+	{
+		int result = 0;
+		for (EventsQueue queue : myQueues.values())
+		{
+			result += queue.myDepth.get();
+		}
+		return result;
+	}
+
+	/**
+	 * @return number of events of the specific kind, waiting for processing
+	 */
+	public int getQueueDepth(@NotNull PerlDebuggingEventKind eventKind)
+	{
+		return myQueues.get(eventKind).myDepth.get();
+	}
+
+	/**
+	 * @return number of events processed in this session
+	 */
+	public long getDispatchedCount()
+	{
+		return myDispatchedCounter.get();
+	}
+
+	/**
+	 * @return average time between event queueing and processing start, in milliseconds
+	 */
+	public double getAverageDispatchLatency()
+	{
+		long dispatched = myDispatchedCounter.get();
+		return dispatched == 0 ? 0 : myTotalLatency.get() / 1000000. / dispatched;
+	}
+
+	/**
+	 * @return maximum time between event queueing and processing start, in milliseconds
+	 */
+	public double getMaxDispatchLatency()
+	{
+		return myMaxLatency.get() / 1000000.;
+	}
+
+	private void registerLatency(long latency)
+	{
+		myDispatchedCounter.incrementAndGet();
+		myTotalLatency.addAndGet(latency);
+
+		long maxLatency;
+		while ((maxLatency = myMaxLatency.get()) < latency && !myMaxLatency.compareAndSet(maxLatency, latency))
+		{
+		}
+	}
+
+	private class EventsQueue
+	{
+		private final ExecutorService myExecutor;
+		private final AtomicInteger myDepth = new AtomicInteger();
+
+		public EventsQueue(@NotNull String name)
+		{
+			myExecutor = Executors.newSingleThreadExecutor(runnable ->
+			{
+				Thread thread = new Thread(runnable, "Perl debugger events, " + name);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		public void submit(@NotNull PerlDebuggingEvent event)
+		{
+			final long queuedAt = System.nanoTime();
+			myDepth.incrementAndGet();
+			myExecutor.execute(() ->
+			{
+				myDepth.decrementAndGet();
+				registerLatency(System.nanoTime() - queuedAt);
+				try
+				{
+					event.run();
+				}
+				catch (Exception e)
+				{
+					LOG.error(e);
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.idea.run.debugger;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.CharsetToolkit;
+import gnu.trove.THashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Persistent, size-limited cache of remote sources, loaded by debugger. Sources are stored by remote path and
+ * identified by MD5 hash of their UTF-8 content, which is sent to the debugger with source request, so unchanged
+ * sources are not transferred again. Cache is shared between debugging sessions and IDE restarts
+ */
+public class PerlRemoteSourcesCache
+{
+	private static final Logger LOG = Logger.getInstance(PerlRemoteSourcesCache.class);
+	private static final long MAX_CACHE_SIZE = 50 * 1024 * 1024;
+
+	private final File myCacheDirectory = new File(PathManager.getSystemPath(), "perl5/remote_sources");
+	// remote path to content hash of the cached source
+	private final Map<String, String> myHashes = new THashMap<>();
+	private final AtomicInteger myHitsCounter = new AtomicInteger();
+	private final AtomicInteger myMissesCounter = new AtomicInteger();
+
+	public static PerlRemoteSourcesCache getInstance()
+	{
+		return ServiceManager.getService(PerlRemoteSourcesCache.class);
+	}
+
+	/**
+	 * Returns hash of the cached source for the remote path
+	 *
+	 * @param remotePath path on the remote side
+	 * @return hash or null if source is not cached
+	 */
+	@Nullable
+	public synchronized String getSourceHash(@NotNull String remotePath)
+	{
+		String hash = myHashes.get(remotePath);
+		if (hash == null)
+		{
+			String source = loadSource(remotePath);
+			if (source != null)
+			{
+				hash = computeHash(source);
+				myHashes.put(remotePath, hash);
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Returns cached source if it has specified hash
+	 *
+	 * @param remotePath remote path
+	 * @param hash       expected hash
+	 * @return source text or null if it's missing or outdated
+	 */
+	@Nullable
+	public synchronized String getSource(@NotNull String remotePath, @NotNull String hash)
+	{
+		if (!hash.equals(getSourceHash(remotePath)))
+		{
+			return null;
+		}
+		String source = loadSource(remotePath);
+		if (source != null)
+		{
+			myHitsCounter.incrementAndGet();
+			FileUtil.setLastModified(getCacheFile(remotePath), System.currentTimeMillis());
+		}
+		return source;
+	}
+
+	/**
+	 * Stores source transferred from the debugger
+	 *
+	 * @param remotePath remote path
+	 * @param source     source text
+	 */
+	public synchronized void putSource(@NotNull String remotePath, @NotNull String source)
+	{
+		myMissesCounter.incrementAndGet();
+		try
+		{
+			FileUtil.writeToFile(getCacheFile(remotePath), source.getBytes(CharsetToolkit.UTF8_CHARSET));
+			myHashes.put(remotePath, computeHash(source));
+			trimCache();
+		}
+		catch (IOException e)
+		{
+			LOG.warn("Unable to cache source of " + remotePath, e);
+		}
+	}
+
+	public int getHitsCount()
+	{
+		return myHitsCounter.get();
+	}
+
+	public int getMissesCount()
+	{
+		return myMissesCounter.get();
+	}
+
+	@Nullable
+	private String loadSource(@NotNull String remotePath)
+	{
+		File cacheFile = getCacheFile(remotePath);
+		if (!cacheFile.isFile())
+		{
+			return null;
+		}
+		try
+		{
+			return FileUtil.loadFile(cacheFile, CharsetToolkit.UTF8_CHARSET);
+		}
+		catch (IOException e)
+		{
+			LOG.warn("Unable to load cached source of " + remotePath, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Removes least recently used sources while cache is too big
+	 */
+	private void trimCache()
+	{
+		File[] files = myCacheDirectory.listFiles();
+		if (files == null)
+		{
+			return;
+		}
+
+		long totalSize = 0;
+		for (File file : files)
+		{
+			totalSize += file.length();
+		}
+
+		if (totalSize <= MAX_CACHE_SIZE)
+		{
+			return;
+		}
+
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		for (int i = 0; i < files.length && totalSize > MAX_CACHE_SIZE; i++)
+		{
+			totalSize -= files[i].length();
+			FileUtil.delete(files[i]);
+		}
+		myHashes.clear();
+	}
+
+	@NotNull
+	private File getCacheFile(@NotNull String remotePath)
+	{
+		return new File(myCacheDirectory, computeHash(remotePath));
+	}
+
+	@NotNull
+	public static String computeHash(@NotNull String text)
+	{
+		try
+		{
+			MessageDigest digest = MessageDigest.getInstance("MD5");
+			return StringUtil.toHexString(digest.digest(text.getBytes(CharsetToolkit.UTF8_CHARSET)));
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -33,6 +33,7 @@ public class PerlSuspendContext extends XSuspendContext
 	private final XExecutionStack myXExecutionStack;
 	private final XDebugSession myDebugSession;
 	private final PerlDebugThread myDebugThread;
+	private final PerlValuesCache myValuesCache = new PerlValuesCache();
 
 	public PerlSuspendContext(PerlStackFrameDescriptor[] eventStackFrames, XDebugSession session, PerlDebugThread thread)
 	{
@@ -64,4 +65,13 @@ public class PerlSuspendContext extends XSuspendContext
 	{
 		return myDebugThread;
 	}
+
+	/**
+	 * @return cache of values children, fetched while debugger is suspended in this context
+	 */
+	@NotNull
+	public PerlValuesCache getValuesCache()
+	{
+		return myValuesCache;
+	}
 }
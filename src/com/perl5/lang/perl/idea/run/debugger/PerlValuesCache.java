@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.idea.run.debugger;
+
+import com.perl5.lang.perl.idea.run.debugger.protocol.PerlValueDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-limited cache of value children pages, fetched from the debugger. Lives as long as the suspend context, so keys
+ * of values are stable for it. Least recently used pages are dropped when total number of cached descriptors exceeds
+ * the limit
+ */
+public class PerlValuesCache
+{
+	private static final int MAX_DESCRIPTORS = 10000;
+
+	// access-ordered map of pages
+	private final LinkedHashMap<String, PerlValueDescriptor[]> myPages = new LinkedHashMap<>(16, 0.75f, true);
+	private int myDescriptorsCount = 0;
+	private int myHitsCount = 0;
+	private int myMissesCount = 0;
+
+	@Nullable
+	public synchronized PerlValueDescriptor[] getPage(@NotNull String key, int offset, int limit)
+	{
+		PerlValueDescriptor[] result = myPages.get(getPageKey(key, offset, limit));
+		if (result == null)
+		{
+			myMissesCount++;
+		}
+		else
+		{
+			myHitsCount++;
+		}
+		return result;
+	}
+
+	public synchronized void putPage(@NotNull String key, int offset, int limit, @NotNull PerlValueDescriptor[] descriptors)
+	{
+		PerlValueDescriptor[] oldPage = myPages.put(getPageKey(key, offset, limit), descriptors);
+		myDescriptorsCount += descriptors.length - (oldPage == null ? 0 : oldPage.length);
+
+		Iterator<Map.Entry<String, PerlValueDescriptor[]>> iterator = myPages.entrySet().iterator();
+		while (myDescriptorsCount > MAX_DESCRIPTORS && iterator.hasNext())
+		{
+			Map.Entry<String, PerlValueDescriptor[]> eldestEntry = iterator.next();
+			if (eldestEntry.getValue() != descriptors)
+			{
+				myDescriptorsCount -= eldestEntry.getValue().length;
+				iterator.remove();
+			}
+		}
+	}
+
+	public synchronized int getHitsCount()
+	{
+		return myHitsCount;
+	}
+
+	public synchronized int getMissesCount()
+	{
+		return myMissesCount;
+	}
+
+	@NotNull
+	private static String getPageKey(@NotNull String key, int offset, int limit)
+	{
+		return key + "@" + offset + ":" + limit;
+	}
+}
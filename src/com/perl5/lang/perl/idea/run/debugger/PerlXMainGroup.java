@@ -28,6 +28,8 @@ public class PerlXMainGroup extends PerlXValueGroup
 {
 	private final int mySize;
 	private int[] offset = new int[]{0};
+	// node children are being added to, offset is reset when group is shown in a new node
+	private XCompositeNode myChildrenNode;
 
 	public PerlXMainGroup(PerlStackFrame stackFrame, int size)
 	{
@@ -38,6 +40,11 @@ public class PerlXMainGroup extends PerlXValueGroup
 	@Override
 	public void computeChildren(@NotNull XCompositeNode node)
 	{
+		if (myChildrenNode != node)
+		{
+			myChildrenNode = node;
+			offset[0] = 0;
+		}
 		PerlDebugUtil.requestAndComputeChildren(node, getStackFrame(), offset, getSize(), "*main::{HASH}");
 	}
 
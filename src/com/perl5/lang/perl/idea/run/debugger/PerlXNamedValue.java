@@ -65,6 +65,8 @@ public class PerlXNamedValue extends XNamedValue
 	private final PerlStackFrame myStackFrame;
 	private final PerlValueDescriptor myPerlValueDescriptor;
 	private int[] offset = new int[]{0};
+	// node children are being added to, offset is reset when value is shown in a new node
+	private XCompositeNode myChildrenNode;
 
 	public PerlXNamedValue(@NotNull PerlValueDescriptor descriptor, PerlStackFrame stackFrame)
 	{
@@ -79,8 +81,14 @@ public class PerlXNamedValue extends XNamedValue
 		if (!myPerlValueDescriptor.isExpandable() || StringUtil.isEmpty(myPerlValueDescriptor.getKey()))
 		{
 			super.computeChildren(node);
+			return;
+		}
+
+		if (myChildrenNode != node)
+		{
+			myChildrenNode = node;
+			offset[0] = 0;
 		}
-		//
 		PerlDebugUtil.requestAndComputeChildren(node, myStackFrame, offset, myPerlValueDescriptor.getSize(), myPerlValueDescriptor.getKey());
 	}
 
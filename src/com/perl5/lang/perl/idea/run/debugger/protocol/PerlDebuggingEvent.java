@@ -18,6 +18,7 @@ package com.perl5.lang.perl.idea.run.debugger.protocol;
 
 import com.intellij.xdebugger.XDebugSession;
 import com.perl5.lang.perl.idea.run.debugger.PerlDebugThread;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * Created by hurricup on 05.05.2016.
@@ -34,4 +35,12 @@ public interface PerlDebuggingEvent extends Runnable
 
 	void setDebugThread(PerlDebugThread debugThread);
 
+	/**
+	 * Returns kind of the event, used to choose dispatching queue
+	 *
+	 * @return event kind
+	 */
+	@NotNull
+	PerlDebuggingEventKind getEventKind();
+
 }
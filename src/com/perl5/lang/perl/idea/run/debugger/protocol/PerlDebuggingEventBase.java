@@ -18,6 +18,7 @@ package com.perl5.lang.perl.idea.run.debugger.protocol;
 
 import com.intellij.xdebugger.XDebugSession;
 import com.perl5.lang.perl.idea.run.debugger.PerlDebugThread;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * Created by hurricup on 08.05.2016.
@@ -47,4 +48,11 @@ public abstract class PerlDebuggingEventBase implements PerlDebuggingEvent
 	{
 		myDebugThread = debugThread;
 	}
+
+	@NotNull
+	@Override
+	public PerlDebuggingEventKind getEventKind()
+	{
+		return PerlDebuggingEventKind.SESSION;
+	}
 }
@@ -14,19 +14,20 @@
  * limitations under the License.
  */
 
-package com.perl5.lang.perl.util.processors;
-
-import com.perl5.lang.perl.extensions.packageprocessor.PerlExportDescriptor;
-import org.jetbrains.annotations.NotNull;
+package com.perl5.lang.perl.idea.run.debugger.protocol;
 
 /**
- * Created by hurricup on 02.06.2016.
+ * Kinds of debugging events. Events of the same kind are processed in order they've been received, events of
+ * different kinds are independent and may be processed concurrently
  */
-public class PerlArrayImportsCollector extends PerlImportsCollector
+public enum PerlDebuggingEventKind
 {
-	@Override
-	protected boolean meetsCondition(@NotNull PerlExportDescriptor descriptor)
-	{
-		return descriptor.isArray();
-	}
+	/**
+	 * Stops, breakpoints and other events, changing debugging session state
+	 */
+	SESSION,
+	/**
+	 * Loaded files updates, changing scripts and evals lists only
+	 */
+	LOADED_FILES
 }
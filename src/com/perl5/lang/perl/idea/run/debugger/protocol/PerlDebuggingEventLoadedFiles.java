@@ -17,6 +17,7 @@
 package com.perl5.lang.perl.idea.run.debugger.protocol;
 
 import com.perl5.lang.perl.idea.run.debugger.ui.PerlScriptsPanel;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -29,6 +30,13 @@ public class PerlDebuggingEventLoadedFiles extends PerlDebuggingEventBase
 	PerlLoadedFileDescriptor[] add;     // list of filenames
 	PerlLoadedFileDescriptor[] remove; // list of filenames
 
+	@NotNull
+	@Override
+	public PerlDebuggingEventKind getEventKind()
+	{
+		return PerlDebuggingEventKind.LOADED_FILES;
+	}
+
 	@Override
 	public void run()
 	{
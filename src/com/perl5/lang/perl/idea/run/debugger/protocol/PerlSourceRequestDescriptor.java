@@ -22,9 +22,16 @@ package com.perl5.lang.perl.idea.run.debugger.protocol;
 public class PerlSourceRequestDescriptor
 {
 	private final String path;
+	private final String hash;    // hash of the cached source, debugger omits data if source is unchanged
 
 	public PerlSourceRequestDescriptor(String path)
+	{
+		this(path, null);
+	}
+
+	public PerlSourceRequestDescriptor(String path, String hash)
 	{
 		this.path = path;
+		this.hash = hash;
 	}
 }
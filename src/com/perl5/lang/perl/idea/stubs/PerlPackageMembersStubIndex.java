@@ -14,19 +14,30 @@
  * limitations under the License.
  */
 
-package com.perl5.lang.perl.util.processors;
+package com.perl5.lang.perl.idea.stubs;
 
-import com.perl5.lang.perl.extensions.packageprocessor.PerlExportDescriptor;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.stubs.StubIndexKey;
 import org.jetbrains.annotations.NotNull;
 
 /**
- * Created by hurricup on 02.06.2016.
+ * Index of package members: sub definitions, sub declarations and globs, keyed by package name
  */
-public class PerlScalarImportsCollector extends PerlImportsCollector
+public class PerlPackageMembersStubIndex extends PerlStubIndexBase<PsiElement>
 {
+	public static final int VERSION = 1;
+	public static final StubIndexKey<String, PsiElement> KEY = StubIndexKey.createIndexKey("perl.package.members");
+
+	@Override
+	public int getVersion()
+	{
+		return super.getVersion() + VERSION;
+	}
+
+	@NotNull
 	@Override
-	protected boolean meetsCondition(@NotNull PerlExportDescriptor descriptor)
+	public StubIndexKey<String, PsiElement> getKey()
 	{
-		return descriptor.isScalar();
+		return KEY;
 	}
 }
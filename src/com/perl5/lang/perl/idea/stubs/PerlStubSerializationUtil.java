@@ -19,6 +19,7 @@ package com.perl5.lang.perl.idea.stubs;
 import com.intellij.psi.stubs.StubInputStream;
 import com.intellij.psi.stubs.StubOutputStream;
 import com.intellij.util.io.StringRef;
+import gnu.trove.TObjectIntHashMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -41,15 +42,27 @@ public class PerlStubSerializationUtil
 	}
 
 
+	/**
+	 * Writes list size as a varint, shifted by one, so null list takes the same single byte as an empty one
+	 */
+	public static void writeListSize(@NotNull StubOutputStream dataStream, @Nullable List<?> list) throws IOException
+	{
+		dataStream.writeVarInt(list == null ? 0 : list.size() + 1);
+	}
+
+	/**
+	 * @return list size or -1 if list was null
+	 */
+	public static int readListSize(@NotNull StubInputStream dataStream) throws IOException
+	{
+		return dataStream.readVarInt() - 1;
+	}
+
 	public static void writeStringsList(@NotNull StubOutputStream dataStream, List<String> stringList) throws IOException
 	{
-		if (stringList == null)
-		{
-			dataStream.writeInt(-1);
-		}
-		else
+		writeListSize(dataStream, stringList);
+		if (stringList != null)
 		{
-			dataStream.writeInt(stringList.size());
 			for (String stringItem : stringList)
 			{
 				dataStream.writeName(stringItem);
@@ -59,7 +72,7 @@ public class PerlStubSerializationUtil
 
 	public static List<String> readStringsList(@NotNull StubInputStream dataStream) throws IOException
 	{
-		int listSize = dataStream.readInt();
+		int listSize = readListSize(dataStream);
 
 		if (listSize == -1)
 		{
@@ -74,27 +87,70 @@ public class PerlStubSerializationUtil
 		return result;
 	}
 
-	public static void writeStringListMap(@NotNull StubOutputStream dataStream, Map<String, List<String>> stringListMap) throws IOException
+	/**
+	 * Writes map of lists, using strings table for values: values, found in the table, are written as varint indexes
+	 * into it, others - as names. Table is usually a data, already written to the stream, like EXPORT and EXPORT_OK
+	 * for EXPORT_TAGS, so it's not written here and should be passed to the {@link #readStringListMap} as is
+	 *
+	 * @param dataStream    output stream
+	 * @param stringListMap map to write
+	 * @param stringsTable  strings, known to the reader
+	 */
+	public static void writeStringListMap(@NotNull StubOutputStream dataStream,
+										  @NotNull Map<String, List<String>> stringListMap,
+										  @NotNull List<String> stringsTable) throws IOException
 	{
-		dataStream.writeInt(stringListMap.size());
-		for (String key : stringListMap.keySet())
+		TObjectIntHashMap<String> stringsIndexes = new TObjectIntHashMap<String>(stringsTable.size());
+		for (int i = stringsTable.size() - 1; i >= 0; i--)
 		{
-			dataStream.writeName(key);
-			writeStringsList(dataStream, stringListMap.get(key));
+			stringsIndexes.put(stringsTable.get(i), i);
+		}
+
+		dataStream.writeVarInt(stringListMap.size());
+		for (Map.Entry<String, List<String>> entry : stringListMap.entrySet())
+		{
+			dataStream.writeName(entry.getKey());
+			List<String> stringList = entry.getValue();
+			writeListSize(dataStream, stringList);
+			if (stringList != null)
+			{
+				for (String stringItem : stringList)
+				{
+					if (stringsIndexes.containsKey(stringItem))
+					{
+						dataStream.writeVarInt(stringsIndexes.get(stringItem) + 1);
+					}
+					else
+					{
+						dataStream.writeVarInt(0);
+						dataStream.writeName(stringItem);
+					}
+				}
+			}
 		}
 	}
 
-	public static Map<String, List<String>> readStringListMap(@NotNull StubInputStream dataStream) throws IOException
+	public static Map<String, List<String>> readStringListMap(@NotNull StubInputStream dataStream,
+															  @NotNull List<String> stringsTable) throws IOException
 	{
-		int mapSize = dataStream.readInt();
+		int mapSize = dataStream.readVarInt();
 		Map<String, List<String>> stringListMap = new HashMap<String, List<String>>(mapSize);
 		for (int i = 0; i < mapSize; i++)
 		{
 			String key = dataStream.readName().toString();
-			stringListMap.put(key, readStringsList(dataStream));
+			int listSize = readListSize(dataStream);
+			List<String> stringList = null;
+			if (listSize != -1)
+			{
+				stringList = new ArrayList<String>(listSize);
+				for (int j = 0; j < listSize; j++)
+				{
+					int stringIndex = dataStream.readVarInt();
+					stringList.add(stringIndex == 0 ? dataStream.readName().toString() : stringsTable.get(stringIndex - 1));
+				}
+			}
+			stringListMap.put(key, stringList);
 		}
 		return stringListMap;
 	}
-
-
 }
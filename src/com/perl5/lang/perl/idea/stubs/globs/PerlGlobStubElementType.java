@@ -21,6 +21,7 @@ import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.stubs.*;
 import com.perl5.lang.perl.PerlLanguage;
+import com.perl5.lang.perl.idea.stubs.PerlPackageMembersStubIndex;
 import com.perl5.lang.perl.parser.elementTypes.PsiElementProvider;
 import com.perl5.lang.perl.psi.PerlGlobVariable;
 import com.perl5.lang.perl.psi.PsiPerlGlobVariable;
@@ -73,7 +74,7 @@ public class PerlGlobStubElementType extends IStubElementType<PerlGlobStub, PsiP
 	{
 		String name = stub.getPackageName() + PerlPackageUtil.PACKAGE_SEPARATOR + stub.getName();
 		sink.occurrence(PerlGlobsStubIndex.KEY, name);
-		sink.occurrence(PerlGlobsStubIndex.KEY, "*" + stub.getPackageName());
+		sink.occurrence(PerlPackageMembersStubIndex.KEY, stub.getPackageName());
 	}
 
 	@Override
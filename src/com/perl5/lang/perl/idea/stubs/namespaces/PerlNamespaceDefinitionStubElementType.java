@@ -33,6 +33,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -107,11 +108,11 @@ public class PerlNamespaceDefinitionStubElementType extends IStubElementType<Per
 	public void serialize(@NotNull PerlNamespaceDefinitionStub stub, @NotNull StubOutputStream dataStream) throws IOException
 	{
 		dataStream.writeName(stub.getPackageName());
-		dataStream.writeName(stub.getMroType().toString());
+		dataStream.writeByte(stub.getMroType().ordinal());
 		PerlStubSerializationUtil.writeStringsList(dataStream, stub.getParentNamespaces());
 		PerlStubSerializationUtil.writeStringsList(dataStream, stub.getEXPORT());
 		PerlStubSerializationUtil.writeStringsList(dataStream, stub.getEXPORT_OK());
-		PerlStubSerializationUtil.writeStringListMap(dataStream, stub.getEXPORT_TAGS());
+		PerlStubSerializationUtil.writeStringListMap(dataStream, stub.getEXPORT_TAGS(), getExportsTable(stub.getEXPORT(), stub.getEXPORT_OK()));
 
 		PerlNamespaceAnnotations namespaceAnnotations = stub.getAnnotations();
 		if (namespaceAnnotations == null)
@@ -130,11 +131,11 @@ public class PerlNamespaceDefinitionStubElementType extends IStubElementType<Per
 	public PerlNamespaceDefinitionStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException
 	{
 		String packageName = dataStream.readName().toString();
-		PerlMroType mroType = PerlMroType.valueOf(dataStream.readName().toString());
+		PerlMroType mroType = PerlMroType.values()[dataStream.readByte()];
 		List<String> parentNamespaces = PerlStubSerializationUtil.readStringsList(dataStream);
 		List<String> EXPORT = PerlStubSerializationUtil.readStringsList(dataStream);
 		List<String> EXPORT_OK = PerlStubSerializationUtil.readStringsList(dataStream);
-		Map<String, List<String>> EXPORT_TAGS = PerlStubSerializationUtil.readStringListMap(dataStream);
+		Map<String, List<String>> EXPORT_TAGS = PerlStubSerializationUtil.readStringListMap(dataStream, getExportsTable(EXPORT, EXPORT_OK));
 
 		return new PerlNamespaceDefinitionStubImpl(
 				parentStub,
@@ -149,6 +150,24 @@ public class PerlNamespaceDefinitionStubElementType extends IStubElementType<Per
 		);
 	}
 
+	/**
+	 * Tags are mostly made of exported names, so EXPORT and EXPORT_OK are used as strings table for EXPORT_TAGS
+	 */
+	@NotNull
+	private static List<String> getExportsTable(@Nullable List<String> EXPORT, @Nullable List<String> EXPORT_OK)
+	{
+		List<String> result = new ArrayList<String>();
+		if (EXPORT != null)
+		{
+			result.addAll(EXPORT);
+		}
+		if (EXPORT_OK != null)
+		{
+			result.addAll(EXPORT_OK);
+		}
+		return result;
+	}
+
 	@Nullable
 	private PerlNamespaceAnnotations desearializeAnnotations(@NotNull StubInputStream dataStream) throws IOException
 	{
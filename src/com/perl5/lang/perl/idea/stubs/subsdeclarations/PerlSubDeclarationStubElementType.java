@@ -21,6 +21,7 @@ import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.stubs.*;
 import com.perl5.lang.perl.PerlLanguage;
+import com.perl5.lang.perl.idea.stubs.PerlPackageMembersStubIndex;
 import com.perl5.lang.perl.parser.elementTypes.PsiElementProvider;
 import com.perl5.lang.perl.psi.PerlSubDeclaration;
 import com.perl5.lang.perl.psi.impl.PsiPerlSubDeclarationImpl;
@@ -101,7 +102,7 @@ public class PerlSubDeclarationStubElementType extends IStubElementType<PerlSubD
 	public void indexStub(@NotNull PerlSubDeclarationStub stub, @NotNull IndexSink sink)
 	{
 		sink.occurrence(PerlSubDeclarationStubIndex.KEY, stub.getCanonicalName());
-		sink.occurrence(PerlSubDeclarationStubIndex.KEY, "*" + stub.getPackageName());
+		sink.occurrence(PerlPackageMembersStubIndex.KEY, stub.getPackageName());
 	}
 
 	@Override
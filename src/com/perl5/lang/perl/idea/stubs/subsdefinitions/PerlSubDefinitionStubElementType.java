@@ -22,6 +22,7 @@ import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.stubs.*;
 import com.perl5.lang.perl.PerlLanguage;
+import com.perl5.lang.perl.idea.stubs.PerlPackageMembersStubIndex;
 import com.perl5.lang.perl.parser.elementTypes.PsiElementProvider;
 import com.perl5.lang.perl.psi.PerlSubDefinitionBase;
 import com.perl5.lang.perl.psi.impl.PsiPerlSubDefinitionImpl;
@@ -82,7 +83,7 @@ public class PerlSubDefinitionStubElementType extends IStubElementType<PerlSubDe
 	public void indexStub(@NotNull PerlSubDefinitionStub stub, @NotNull IndexSink sink)
 	{
 		sink.occurrence(PerlSubDefinitionsStubIndex.KEY, stub.getCanonicalName());
-		sink.occurrence(PerlSubDefinitionsStubIndex.KEY, "*" + stub.getPackageName());
+		sink.occurrence(PerlPackageMembersStubIndex.KEY, stub.getPackageName());
 	}
 
 	@Override
@@ -145,6 +145,5 @@ public class PerlVariableStubElementType extends IStubElementType<PerlVariableSt
 	{
 		String variableName = stub.getPackageName() + PerlPackageUtil.PACKAGE_SEPARATOR + stub.getVariableName();
 		sink.occurrence(stub.getIndexKey(), variableName);
-		sink.occurrence(stub.getIndexKey(), "*" + stub.getPackageName());
 	}
 }
@@ -62,8 +62,8 @@ public abstract class PerlBaseLexer extends PerlProtoLexer
 	public static final Map<IElementType, String> ALLOWED_REGEXP_MODIFIERS = new THashMap<>();
 	public static final String ALLOWED_TR_MODIFIERS = "cdsr";
 	public static final Pattern POSIX_CHAR_CLASS_PATTERN = Pattern.compile("\\[\\[:\\^?\\w*:\\]\\]");
-	public static final Map<String, IElementType> RESERVED_TOKEN_TYPES = new THashMap<>();
-	public static final Map<String, IElementType> CUSTOM_TOKEN_TYPES = new THashMap<>();
+	public static final PerlTokenTypesMap RESERVED_TOKEN_TYPES = new PerlTokenTypesMap();
+	public static final PerlTokenTypesMap CUSTOM_TOKEN_TYPES = new PerlTokenTypesMap();
 	private static final List<IElementType> DQ_TOKENS = Arrays.asList(QUOTE_DOUBLE_OPEN, LP_STRING_QQ, QUOTE_DOUBLE_CLOSE);
 	private static final List<IElementType> SQ_TOKENS = Arrays.asList(QUOTE_SINGLE_OPEN, STRING_CONTENT, QUOTE_SINGLE_CLOSE);
 	private static final List<IElementType> XQ_TOKENS = Arrays.asList(QUOTE_TICK_OPEN, LP_STRING_XQ, QUOTE_TICK_CLOSE);
@@ -131,6 +131,8 @@ public abstract class PerlBaseLexer extends PerlProtoLexer
 	private AtomicNotNullLazyValue<Set<String>> mySubNamesProvider;
 	private AtomicNotNullLazyValue<Set<String>> myPackageNamesProvider;
 	private Set<String> myLocalPackages = new THashSet<>();
+	// barewords, which require names lookup, are returned as BAREWORD_AMBIGUOUS and resolved by the caller
+	private boolean myDeferBarewordsResolution = false;
 
 	public static void initReservedTokensMap()
 	{
@@ -180,6 +182,20 @@ public abstract class PerlBaseLexer extends PerlProtoLexer
 		return this;
 	}
 
+	/**
+	 * Enables index-independent lexing: barewords, which can't be identified without names lookup, are returned as
+	 * {@link PerlElementTypes#BAREWORD_AMBIGUOUS}, so lexer states and tokens depend on text only. Ambiguous tokens
+	 * should be resolved with {@link #disambiguateBareword(CharSequence)}
+	 *
+	 * @param deferResolution true to enable
+	 * @return this lexer
+	 */
+	public PerlBaseLexer withDeferredBarewordsResolution(boolean deferResolution)
+	{
+		myDeferBarewordsResolution = deferResolution;
+		return this;
+	}
+
 	@Override
 	public boolean isInitialState()
 	{
@@ -506,17 +522,18 @@ public abstract class PerlBaseLexer extends PerlProtoLexer
 	 */
 	protected IElementType getIdentifierTokenWithoutIndex()
 	{
-		CharSequence tokenText = yytext();
-		int lastIndex;
-		if (StringUtil.endsWithChar(tokenText, ':'))
+		CharSequence buffer = getBuffer();
+		int tokenStart = getTokenStart();
+		int tokenEnd = getTokenEnd();
+		if (buffer.charAt(tokenEnd - 1) == ':')
 		{
 			return PACKAGE;
 		}
 
-		int tokenLength = tokenText.length();
-		if ((lastIndex = StringUtil.lastIndexOfAny(tokenText, ":'") + 1) > 0)
+		int lastIndex;
+		if ((lastIndex = lastPackageSeparatorIndex(buffer, tokenStart, tokenEnd) + 1) > 0)
 		{
-			yypushback(tokenLength - lastIndex);
+			yypushback(tokenEnd - lastIndex);
 			pushStateAndBegin(LEX_SUB_NAME);
 			return QUALIFYING_PACKAGE;
 		}
@@ -527,54 +544,29 @@ public abstract class PerlBaseLexer extends PerlProtoLexer
 	}
 
 	/**
-	 * Bareword parser, resolves built-ins and runs additional processings where it's necessary
+	 * Bareword parser, resolves built-ins and runs additional processings where it's necessary.
+	 * Works on the buffer range, token text is built only if bareword requires names lookup
 	 *
 	 * @return token type
 	 */
 	protected IElementType getIdentifierToken()
 	{
-		String tokenText = yytext().toString();
+		CharSequence buffer = getBuffer();
+		int tokenStart = getTokenStart();
+		int tokenEnd = getTokenEnd();
 		IElementType tokenType;
 
-		if ((tokenType = RESERVED_TOKEN_TYPES.get(tokenText)) == null &&
-				(tokenType = CUSTOM_TOKEN_TYPES.get(tokenText)) == null
+		if ((tokenType = RESERVED_TOKEN_TYPES.get(buffer, tokenStart, tokenEnd)) == null &&
+				(tokenType = CUSTOM_TOKEN_TYPES.get(buffer, tokenStart, tokenEnd)) == null
 				)
 		{
-			if (StringUtil.endsWithChar(tokenText, ':'))
+			if (buffer.charAt(tokenEnd - 1) == ':')
 			{
 				tokenType = PACKAGE;
 			}
 			else if (myProject != null)
 			{
-
-				String canonicalName = PerlPackageUtil.getCanonicalName(tokenText);
-				if (!StringUtil.containsChar(canonicalName, ':'))
-				{
-					if (StringUtil.isCapitalized(canonicalName) && (myPackageNamesProvider.getValue().contains(canonicalName) || myLocalPackages.contains(canonicalName)))
-					{
-						tokenType = PACKAGE;
-					}
-					else
-					{
-						tokenType = SUB_NAME;
-					}
-				}
-				else if (StringUtil.equals(canonicalName, "UNIVERSAL::can"))
-				{
-					tokenType = QUALIFYING_PACKAGE;
-				}
-				else if (mySubNamesProvider.getValue().contains(canonicalName))
-				{
-					tokenType = QUALIFYING_PACKAGE;
-				}
-				else if (myPackageNamesProvider.getValue().contains(canonicalName) || myLocalPackages.contains(canonicalName))
-				{
-					tokenType = PACKAGE;
-				}
-				else
-				{
-					tokenType = QUALIFYING_PACKAGE;
-				}
+				tokenType = getBarewordTokenType(buffer, tokenStart, tokenEnd, myDeferBarewordsResolution);
 			}
 			else    // fallback for words scanner
 			{
@@ -586,14 +578,97 @@ public abstract class PerlBaseLexer extends PerlProtoLexer
 
 		if (tokenType == QUALIFYING_PACKAGE)
 		{
-			int lastIndex = StringUtil.lastIndexOfAny(tokenText, ":'") + 1;
-			yypushback(tokenText.length() - lastIndex);
+			int lastIndex = lastPackageSeparatorIndex(buffer, tokenStart, tokenEnd) + 1;
+			yypushback(tokenEnd - lastIndex);
 			pushStateAndBegin(LEX_SUB_NAME);
 		}
 
 		return tokenType;
 	}
 
+	/**
+	 * @return offset of the last package separator char in the range or -1 if there is none
+	 */
+	private static int lastPackageSeparatorIndex(@NotNull CharSequence buffer, int start, int end)
+	{
+		for (int i = end - 1; i >= start; i--)
+		{
+			char currentChar = buffer.charAt(i);
+			if (currentChar == ':' || currentChar == '\'')
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Disambiguates {@link PerlElementTypes#BAREWORD_AMBIGUOUS} token, returned in deferred resolution mode. Should be
+	 * invoked right after the token been lexed, because it depends on packages, declared in the file before it.
+	 * If result is QUALIFYING_PACKAGE, token should be split by the caller at the last package separator, the
+	 * rest of it is a SUB_NAME
+	 *
+	 * @param tokenText ambiguous token text
+	 * @return PACKAGE, SUB_NAME or QUALIFYING_PACKAGE
+	 */
+	@NotNull
+	public IElementType disambiguateBareword(@NotNull CharSequence tokenText)
+	{
+		return getBarewordTokenType(tokenText, 0, tokenText.length(), false);
+	}
+
+	/**
+	 * Resolves bareword, which is neither reserved nor custom token, using names known in the project.
+	 * Name string is built only for names lookup
+	 *
+	 * @param buffer           buffer with bareword
+	 * @param start            bareword start offset
+	 * @param end              bareword end offset
+	 * @param deferNamesLookup if true, returns BAREWORD_AMBIGUOUS instead of names lookup
+	 * @return token type
+	 */
+	@NotNull
+	private IElementType getBarewordTokenType(@NotNull CharSequence buffer, int start, int end, boolean deferNamesLookup)
+	{
+		// unqualified name is canonical itself
+		if (lastPackageSeparatorIndex(buffer, start, end) < 0)
+		{
+			if (!Character.isUpperCase(buffer.charAt(start)))
+			{
+				return SUB_NAME;
+			}
+			else if (deferNamesLookup)
+			{
+				return BAREWORD_AMBIGUOUS;
+			}
+			return isKnownPackage(buffer.subSequence(start, end).toString()) ? PACKAGE : SUB_NAME;
+		}
+		else if (PerlPackageUtil.isCanonicalNameEqual(buffer, start, end, "UNIVERSAL::can"))
+		{
+			return QUALIFYING_PACKAGE;
+		}
+		else if (deferNamesLookup)
+		{
+			return BAREWORD_AMBIGUOUS;
+		}
+
+		String canonicalName = PerlPackageUtil.getCanonicalName(buffer.subSequence(start, end).toString());
+		if (mySubNamesProvider.getValue().contains(canonicalName))
+		{
+			return QUALIFYING_PACKAGE;
+		}
+		else if (isKnownPackage(canonicalName))
+		{
+			return PACKAGE;
+		}
+		return QUALIFYING_PACKAGE;
+	}
+
+	private boolean isKnownPackage(@NotNull String canonicalName)
+	{
+		return myPackageNamesProvider.getValue().contains(canonicalName) || myLocalPackages.contains(canonicalName);
+	}
+
 	private List<IElementType> getStringTokens()
 	{
 		int currentState = getRealLexicalState();
@@ -835,7 +910,7 @@ public abstract class PerlBaseLexer extends PerlProtoLexer
 				{
 					currentOffset++;
 				}
-				pushPreparsedToken(getCustomToken(commentStart, currentOffset, COMMENT_LINE));
+				pushPreparsedToken(commentStart, currentOffset, COMMENT_LINE);
 			}
 			else
 			{
@@ -976,7 +1051,7 @@ public abstract class PerlBaseLexer extends PerlProtoLexer
 	}
 
 	/**
-	 * Parses regexp from the current position (opening delimiter) and preserves tokens in preparsedTokensList
+	 * Parses regexp from the current position (opening delimiter) and preserves tokens in preparsedTokens
 	 * REGEX_MODIFIERS = [msixpodualgcer]
 	 *
 	 * @return opening delimiter type
@@ -994,18 +1069,17 @@ public abstract class PerlBaseLexer extends PerlProtoLexer
 
 		// find block 1
 		int firstBlockEndOffset = getRegexBlockEndOffset(currentOffset, firstBlockOpeningQuote, false);
-		CustomToken firstBlockToken = null;
+		int firstBlockToken = -1;
 		if (firstBlockEndOffset > currentOffset)
 		{
-			firstBlockToken = new CustomToken(currentOffset, firstBlockEndOffset, LP_REGEX);
-			pushPreparsedToken(firstBlockToken);
+			firstBlockToken = pushPreparsedToken(currentOffset, firstBlockEndOffset, LP_REGEX);
 		}
 
 		currentOffset = firstBlockEndOffset;
 
 		// find block 2
-		CustomToken secondBlockOpeningToken = null;
-		CustomToken secondBlockToken = null;
+		int secondBlockOpeningToken = -1;
+		int secondBlockToken = -1;
 
 		if (currentOffset < bufferEnd)
 		{
@@ -1018,8 +1092,7 @@ public abstract class PerlBaseLexer extends PerlProtoLexer
 				char secondBlockOpeningQuote = firstBlockOpeningQuote;
 				if (firstBlockOpeningQuote == getQuoteCloseChar(firstBlockOpeningQuote))
 				{
-					secondBlockOpeningToken = new CustomToken(currentOffset++, currentOffset, REGEX_QUOTE);
-					pushPreparsedToken(secondBlockOpeningToken);
+					secondBlockOpeningToken = pushPreparsedToken(currentOffset++, currentOffset, REGEX_QUOTE);
 				}
 				else
 				{
@@ -1029,8 +1102,7 @@ public abstract class PerlBaseLexer extends PerlProtoLexer
 					if (currentOffset < bufferEnd)
 					{
 						secondBlockOpeningQuote = buffer.charAt(currentOffset);
-						secondBlockOpeningToken = new CustomToken(currentOffset++, currentOffset, REGEX_QUOTE_OPEN);
-						pushPreparsedToken(secondBlockOpeningToken);
+						secondBlockOpeningToken = pushPreparsedToken(currentOffset++, currentOffset, REGEX_QUOTE_OPEN);
 					}
 				}
 
@@ -1040,8 +1112,7 @@ public abstract class PerlBaseLexer extends PerlProtoLexer
 
 					if (secondBlockEndOffset > currentOffset)
 					{
-						secondBlockToken = new CustomToken(currentOffset, secondBlockEndOffset, LP_REGEX_REPLACEMENT);
-						pushPreparsedToken(secondBlockToken);
+						secondBlockToken = pushPreparsedToken(currentOffset, secondBlockEndOffset, LP_REGEX_REPLACEMENT);
 						currentOffset = secondBlockEndOffset;
 					}
 				}
@@ -1066,32 +1137,32 @@ public abstract class PerlBaseLexer extends PerlProtoLexer
 			}
 			else if (currentChar == 'x')    // mark as extended
 			{
-				if (firstBlockToken != null)
+				if (firstBlockToken != -1)
 				{
-					firstBlockToken.setTokenType(LP_REGEX_X);
+					setPreparsedTokenType(firstBlockToken, LP_REGEX_X);
 				}
 			}
 			else if (currentChar == 'e')    // mark as evaluated
 			{
-				if (secondBlockOpeningToken != null)
+				if (secondBlockOpeningToken != -1)
 				{
-					IElementType secondBlockOpeningTokenType = secondBlockOpeningToken.getTokenType();
+					IElementType secondBlockOpeningTokenType = getPreparsedTokenType(secondBlockOpeningToken);
 					if (secondBlockOpeningTokenType == REGEX_QUOTE_OPEN || secondBlockOpeningTokenType == REGEX_QUOTE_OPEN_E)
 					{
-						secondBlockOpeningToken.setTokenType(REGEX_QUOTE_OPEN_E);
+						setPreparsedTokenType(secondBlockOpeningToken, REGEX_QUOTE_OPEN_E);
 					}
 					else if (secondBlockOpeningTokenType == REGEX_QUOTE || secondBlockOpeningTokenType == REGEX_QUOTE_E)
 					{
-						secondBlockOpeningToken.setTokenType(REGEX_QUOTE_E);
+						setPreparsedTokenType(secondBlockOpeningToken, REGEX_QUOTE_E);
 					}
 					else
 					{
 						throw new RuntimeException("Bug, got: " + secondBlockOpeningTokenType);
 					}
 				}
-				if (secondBlockToken != null)
+				if (secondBlockToken != -1)
 				{
-					secondBlockToken.setTokenType(LP_CODE_BLOCK);
+					setPreparsedTokenType(secondBlockToken, LP_CODE_BLOCK);
 				}
 			}
 
@@ -18,6 +18,7 @@ package com.perl5.lang.perl.lexer;
 
 import com.intellij.psi.tree.IElementType;
 import com.perl5.lang.perl.PerlLanguage;
+import com.perl5.lang.perl.parser.elementTypes.PerlTokenType;
 import com.perl5.lang.pod.elementTypes.PodTemplatingElementType;
 import com.perl5.lang.pod.lexer.PodElementTypes;
 
@@ -27,4 +28,10 @@ import com.perl5.lang.pod.lexer.PodElementTypes;
 public interface PerlElementTypes extends PerlElementTypesGenerated, PodElementTypes
 {
 	IElementType POD_BLOCK = new PodTemplatingElementType("POD_BLOCK", PerlLanguage.INSTANCE);
+
+	/**
+	 * Bareword, which may be a package or sub name, depending on names known in the project. Emitted only by lexer
+	 * with deferred barewords resolution and should never get into the parser
+	 */
+	IElementType BAREWORD_AMBIGUOUS = new PerlTokenType("BAREWORD_AMBIGUOUS");
 }
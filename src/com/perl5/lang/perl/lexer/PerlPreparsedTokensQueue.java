@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.lexer;
+
+import com.intellij.psi.tree.IElementType;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Reusable deque of preparsed tokens, backed by primitive ring arrays, so queueing tokens allocates nothing after
+ * the queue has grown to the working size. Every added token gets an id, which may be used to change token type
+ * until the token is removed.
+ */
+public class PerlPreparsedTokensQueue
+{
+	private int[] myStarts;
+	private int[] myEnds;
+	private IElementType[] myTypes;
+	private int myHead;
+	private int mySize;
+	// id of the first token in the queue
+	private int myFirstId;
+
+	public PerlPreparsedTokensQueue(int initialCapacity)
+	{
+		int capacity = Integer.highestOneBit(Math.max(initialCapacity, 2) - 1) << 1;
+		myStarts = new int[capacity];
+		myEnds = new int[capacity];
+		myTypes = new IElementType[capacity];
+	}
+
+	public PerlPreparsedTokensQueue()
+	{
+		this(16);
+	}
+
+	public boolean isEmpty()
+	{
+		return mySize == 0;
+	}
+
+	public int size()
+	{
+		return mySize;
+	}
+
+	public void clear()
+	{
+		for (int i = 0; i < mySize; i++)
+		{
+			myTypes[slot(i)] = null;
+		}
+		myHead = 0;
+		mySize = 0;
+		myFirstId = 0;
+	}
+
+	/**
+	 * Appends token to the end of the queue
+	 *
+	 * @return token id
+	 */
+	public int addLast(int start, int end, IElementType tokenType)
+	{
+		ensureCapacity();
+		int slot = slot(mySize++);
+		set(slot, start, end, tokenType);
+		return myFirstId + mySize - 1;
+	}
+
+	/**
+	 * Inserts token in the beginning of the queue
+	 *
+	 * @return token id
+	 */
+	public int addFirst(int start, int end, IElementType tokenType)
+	{
+		ensureCapacity();
+		myHead = (myHead - 1) & (myTypes.length - 1);
+		mySize++;
+		set(myHead, start, end, tokenType);
+		return --myFirstId;
+	}
+
+	/**
+	 * Removes first token from the queue; it's values should be read with {@link #getFirstStart()},
+	 * {@link #getFirstEnd()} and {@link #getFirstType()} before removal
+	 */
+	public void removeFirst()
+	{
+		checkNotEmpty();
+		myTypes[myHead] = null;
+		myHead = (myHead + 1) & (myTypes.length - 1);
+		mySize--;
+		myFirstId++;
+	}
+
+	public int getFirstStart()
+	{
+		checkNotEmpty();
+		return myStarts[myHead];
+	}
+
+	public int getFirstEnd()
+	{
+		checkNotEmpty();
+		return myEnds[myHead];
+	}
+
+	public IElementType getFirstType()
+	{
+		checkNotEmpty();
+		return myTypes[myHead];
+	}
+
+	public int getLastEnd()
+	{
+		checkNotEmpty();
+		return myEnds[slot(mySize - 1)];
+	}
+
+	public IElementType getTokenType(int tokenId)
+	{
+		return myTypes[idToSlot(tokenId)];
+	}
+
+	public void setTokenType(int tokenId, IElementType tokenType)
+	{
+		myTypes[idToSlot(tokenId)] = tokenType;
+	}
+
+	private int idToSlot(int tokenId)
+	{
+		int index = tokenId - myFirstId;
+		if (index < 0 || index >= mySize)
+		{
+			throw new NoSuchElementException("Token " + tokenId + " is not in the queue");
+		}
+		return slot(index);
+	}
+
+	private int slot(int index)
+	{
+		return (myHead + index) & (myTypes.length - 1);
+	}
+
+	private void set(int slot, int start, int end, IElementType tokenType)
+	{
+		myStarts[slot] = start;
+		myEnds[slot] = end;
+		myTypes[slot] = tokenType;
+	}
+
+	private void checkNotEmpty()
+	{
+		if (mySize == 0)
+		{
+			throw new NoSuchElementException();
+		}
+	}
+
+	private void ensureCapacity()
+	{
+		int capacity = myTypes.length;
+		if (mySize < capacity)
+		{
+			return;
+		}
+
+		int newCapacity = capacity << 1;
+		int[] newStarts = new int[newCapacity];
+		int[] newEnds = new int[newCapacity];
+		IElementType[] newTypes = new IElementType[newCapacity];
+
+		int headPart = capacity - myHead;
+		System.arraycopy(myStarts, myHead, newStarts, 0, headPart);
+		System.arraycopy(myEnds, myHead, newEnds, 0, headPart);
+		System.arraycopy(myTypes, myHead, newTypes, 0, headPart);
+		System.arraycopy(myStarts, 0, newStarts, headPart, myHead);
+		System.arraycopy(myEnds, 0, newEnds, headPart, myHead);
+		System.arraycopy(myTypes, 0, newTypes, headPart, myHead);
+
+		myStarts = newStarts;
+		myEnds = newEnds;
+		myTypes = newTypes;
+		myHead = 0;
+	}
+}
@@ -23,16 +23,13 @@ import com.intellij.psi.tree.IElementType;
 import com.intellij.util.containers.IntStack;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
 
 /**
  * Created by hurricup on 24.03.2016.
  */
 public abstract class PerlProtoLexer implements FlexLexer
 {
-	protected final LinkedList<CustomToken> preparsedTokensList = new LinkedList<>();
+	protected final PerlPreparsedTokensQueue preparsedTokens = new PerlPreparsedTokensQueue();
 	protected final IntStack stateStack = new IntStack();
 	protected final PerlTokenHistory myTokenHistory = new PerlTokenHistory();
 
@@ -59,7 +56,7 @@ public abstract class PerlProtoLexer implements FlexLexer
 
 	public boolean hasPreparsedTokens()
 	{
-		return !preparsedTokensList.isEmpty();
+		return !preparsedTokens.isEmpty();
 	}
 
 	/**
@@ -69,14 +66,14 @@ public abstract class PerlProtoLexer implements FlexLexer
 	 */
 	public boolean isInitialState()
 	{
-		return preparsedTokensList.isEmpty() && stateStack.empty();
+		return preparsedTokens.isEmpty() && stateStack.empty();
 	}
 
 	public IElementType advance() throws IOException
 	{
 		IElementType tokenType;
 
-		if (!preparsedTokensList.isEmpty())
+		if (!preparsedTokens.isEmpty())
 		{
 			tokenType = getPreParsedToken();
 		}
@@ -87,7 +84,7 @@ public abstract class PerlProtoLexer implements FlexLexer
 
 		if (tokenType != null)
 		{
-			registerToken(tokenType, yytext());
+			registerToken(tokenType);
 		}
 
 		return tokenType;
@@ -107,14 +104,11 @@ public abstract class PerlProtoLexer implements FlexLexer
 	 */
 	public IElementType getPreParsedToken()
 	{
-		return restoreToken(preparsedTokensList.removeFirst());
-	}
-
-	private IElementType restoreToken(CustomToken token)
-	{
-		setTokenStart(token.getTokenStart());
-		setTokenEnd(token.getTokenEnd());
-		return token.getTokenType();
+		setTokenStart(preparsedTokens.getFirstStart());
+		setTokenEnd(preparsedTokens.getFirstEnd());
+		IElementType tokenType = preparsedTokens.getFirstType();
+		preparsedTokens.removeFirst();
+		return tokenType;
 	}
 
 	public void pushStateAndBegin(int newState)
@@ -133,9 +127,9 @@ public abstract class PerlProtoLexer implements FlexLexer
 		yybegin(stateStack.pop());
 	}
 
-	public void registerToken(IElementType tokenType, CharSequence tokenText)
+	public void registerToken(IElementType tokenType)
 	{
-		getTokenHistory().addToken(tokenType, tokenText);
+		getTokenHistory().addToken(tokenType, getBuffer(), getTokenStart(), getTokenEnd());
 	}
 
 	public PerlTokenHistory getTokenHistory()
@@ -149,10 +143,43 @@ public abstract class PerlProtoLexer implements FlexLexer
 	 * @param start     token start
 	 * @param end       token end
 	 * @param tokenType token type
+	 * @return token id, which may be used to change token type while it's in the queue
+	 */
+	protected int pushPreparsedToken(int start, int end, IElementType tokenType)
+	{
+		assert preparsedTokens.isEmpty() ||
+				preparsedTokens.getLastEnd() == start :
+				"Tokens size is " +
+						preparsedTokens.size() +
+						" new token start is " +
+						start +
+						(preparsedTokens.isEmpty() ? "" :
+								" last token end is " +
+										preparsedTokens.getLastEnd());
+
+		return preparsedTokens.addLast(start, end, tokenType);
+	}
+
+	/**
+	 * Changes type of the token, which is still in the queue
+	 *
+	 * @param tokenId   token id, returned on adding
+	 * @param tokenType new token type
+	 */
+	protected void setPreparsedTokenType(int tokenId, IElementType tokenType)
+	{
+		preparsedTokens.setTokenType(tokenId, tokenType);
+	}
+
+	/**
+	 * Returns type of the token, which is still in the queue
+	 *
+	 * @param tokenId token id, returned on adding
+	 * @return token type
 	 */
-	protected void pushPreparsedToken(int start, int end, IElementType tokenType)
+	protected IElementType getPreparsedTokenType(int tokenId)
 	{
-		pushPreparsedToken(getCustomToken(start, end, tokenType));
+		return preparsedTokens.getTokenType(tokenId);
 	}
 
 	/**
@@ -194,62 +221,31 @@ public abstract class PerlProtoLexer implements FlexLexer
 
 
 	/**
-	 * Helper for creating custom token object
+	 * Inserts preparsed token in the beginning of the queue with consistency control
 	 *
 	 * @param start     token start
 	 * @param end       token end
 	 * @param tokenType token type
-	 * @return custom token object
-	 */
-	protected CustomToken getCustomToken(int start, int end, IElementType tokenType)
-	{
-		return new CustomToken(start, end, tokenType);
-	}
-
-	/**
-	 * Adds preparsed token to the queue with consistency control
-	 *
-	 * @param token token to add
-	 */
-	protected void pushPreparsedToken(CustomToken token)
-	{
-		assert preparsedTokensList.isEmpty() ||
-				preparsedTokensList.getLast().getTokenEnd() == token.getTokenStart() :
-				"Tokens size is " +
-						preparsedTokensList.size() +
-						" new token start is " +
-						token.getTokenStart() +
-						(preparsedTokensList.isEmpty() ? "" :
-								" last token end is " +
-										preparsedTokensList.getLast().getTokenEnd());
-
-		preparsedTokensList.add(token);
-	}
-
-	/**
-	 * Adds preparsed token to the queue with consistency control
-	 *
-	 * @param token token to add
 	 */
-	protected void unshiftPreparsedToken(CustomToken token)
+	protected void unshiftPreparsedToken(int start, int end, IElementType tokenType)
 	{
-		assert preparsedTokensList.isEmpty() ||
-				preparsedTokensList.getFirst().getTokenStart() == token.getTokenEnd() :
+		assert preparsedTokens.isEmpty() ||
+				preparsedTokens.getFirstStart() == end :
 				"Tokens size is " +
-						preparsedTokensList.size() +
+						preparsedTokens.size() +
 						" new token end is " +
-						token.getTokenEnd() +
-						(preparsedTokensList.isEmpty() ? "" :
+						end +
+						(preparsedTokens.isEmpty() ? "" :
 								" first start end is " +
-										preparsedTokensList.getFirst().getTokenStart());
+										preparsedTokens.getFirstStart());
 
-		preparsedTokensList.addFirst(token);
+		preparsedTokens.addFirst(start, end, tokenType);
 	}
 
 	protected void resetInternals()
 	{
 		getTokenHistory().reset();
-		preparsedTokensList.clear();
+		preparsedTokens.clear();
 		stateStack.clear();
 	}
 
@@ -277,23 +273,28 @@ public abstract class PerlProtoLexer implements FlexLexer
 	 */
 	protected void reLexHTMLBLock(int blockStart, int blockEnd, int lastNonspaceCharacterOffset, IElementType templateElementType)
 	{
-		List<CustomToken> tokens = new ArrayList<>();
-		int myOffset = lexSpacesInRange(blockStart, blockEnd, tokens);
+		int queuedTokensNumber = preparsedTokens.size();
+		int myOffset = lexSpacesInRange(blockStart, blockEnd, preparsedTokens);
 
 		// real template
 		if (myOffset <= lastNonspaceCharacterOffset)
 		{
-			tokens.add(new CustomToken(myOffset, lastNonspaceCharacterOffset + 1, templateElementType));
+			preparsedTokens.addLast(myOffset, lastNonspaceCharacterOffset + 1, templateElementType);
 		}
 
 		if (lastNonspaceCharacterOffset > -1)
 		{
-			lexSpacesInRange(lastNonspaceCharacterOffset + 1, blockEnd, tokens);
+			lexSpacesInRange(lastNonspaceCharacterOffset + 1, blockEnd, preparsedTokens);
 		}
 
-		for (int i = tokens.size() - 1; i >= 0; i--)
+		// moving previously queued tokens after the new ones
+		for (int i = 0; i < queuedTokensNumber; i++)
 		{
-			unshiftPreparsedToken(tokens.get(i));
+			int start = preparsedTokens.getFirstStart();
+			int end = preparsedTokens.getFirstEnd();
+			IElementType tokenType = preparsedTokens.getFirstType();
+			preparsedTokens.removeFirst();
+			preparsedTokens.addLast(start, end, tokenType);
 		}
 	}
 
@@ -302,10 +303,10 @@ public abstract class PerlProtoLexer implements FlexLexer
 	 *
 	 * @param blockStart start offset
 	 * @param blockEnd   end offset
-	 * @param tokens     result tokens list
+	 * @param tokens     queue to add tokens to
 	 * @return offset of the blockEnd or first non-space character
 	 */
-	protected int lexSpacesInRange(int blockStart, int blockEnd, List<CustomToken> tokens)
+	protected int lexSpacesInRange(int blockStart, int blockEnd, PerlPreparsedTokensQueue tokens)
 	{
 		int whiteSpaceTokenStart = -1;
 		CharSequence buffer = getBuffer();
@@ -316,10 +317,10 @@ public abstract class PerlProtoLexer implements FlexLexer
 			{
 				if (whiteSpaceTokenStart != -1)
 				{
-					tokens.add(new CustomToken(whiteSpaceTokenStart, blockStart, TokenType.WHITE_SPACE));
+					tokens.addLast(whiteSpaceTokenStart, blockStart, TokenType.WHITE_SPACE);
 					whiteSpaceTokenStart = -1;
 				}
-				tokens.add(new CustomToken(blockStart, blockStart + 1, TokenType.NEW_LINE_INDENT));
+				tokens.addLast(blockStart, blockStart + 1, TokenType.NEW_LINE_INDENT);
 			}
 			else if (Character.isWhitespace(currentChar))
 			{
@@ -332,7 +333,7 @@ public abstract class PerlProtoLexer implements FlexLexer
 			{
 				if (whiteSpaceTokenStart != -1)
 				{
-					tokens.add(new CustomToken(whiteSpaceTokenStart, blockStart, TokenType.WHITE_SPACE));
+					tokens.addLast(whiteSpaceTokenStart, blockStart, TokenType.WHITE_SPACE);
 					whiteSpaceTokenStart = -1;
 				}
 				break;
@@ -341,7 +342,7 @@ public abstract class PerlProtoLexer implements FlexLexer
 		}
 		if (whiteSpaceTokenStart != -1)
 		{
-			tokens.add(new CustomToken(whiteSpaceTokenStart, blockStart, TokenType.WHITE_SPACE));
+			tokens.addLast(whiteSpaceTokenStart, blockStart, TokenType.WHITE_SPACE);
 		}
 		return blockStart;
 	}
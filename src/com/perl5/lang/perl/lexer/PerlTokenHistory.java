@@ -18,153 +18,221 @@ package com.perl5.lang.perl.lexer;
 
 import com.intellij.psi.tree.IElementType;
 import com.perl5.lang.perl.PerlParserDefinition;
-import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Created by hurricup on 11.10.2015.
+ * Fixed-size token history. Keeps types and offsets of last {@link #HISTORY_SIZE} tokens in a ring buffer and of the
+ * last significant, unbraced and unparen tokens; texts are taken from the lexer buffer on demand, so registering a
+ * token allocates nothing.
  */
 public class PerlTokenHistory implements PerlElementTypes
 {
-	private final List<PerlTokenHistoryElement> myHistory = new ArrayList<PerlTokenHistoryElement>();
+	/**
+	 * Number of tokens kept, should be a power of two
+	 */
+	public static final int HISTORY_SIZE = 16;
+	private static final int HISTORY_MASK = HISTORY_SIZE - 1;
+
+	private static final int LAST_SIGNIFICANT = 0;
+	private static final int LAST_UNBRACED = 1;
+	private static final int LAST_UNPAREN = 2;
+
+	private final IElementType[] myTokenTypes = new IElementType[HISTORY_SIZE];
+	private final int[] myTokenStarts = new int[HISTORY_SIZE];
+	private final int[] myTokenEnds = new int[HISTORY_SIZE];
 
-	private PerlTokenHistoryElement myLastToken;
-	private PerlTokenHistoryElement myLastSignificantToken;
-	private PerlTokenHistoryElement myLastUnbracedToken;
-	private PerlTokenHistoryElement myLastUnparenToken;
+	private final IElementType[] myMarkedTokenTypes = new IElementType[3];
+	private final int[] myMarkedTokenStarts = new int[3];
+	private final int[] myMarkedTokenEnds = new int[3];
 
-	public void addToken(IElementType tokenType, CharSequence tokenText)
+	private CharSequence myBuffer;
+	private int mySize;
+
+	public void addToken(IElementType tokenType, CharSequence buffer, int tokenStart, int tokenEnd)
 	{
-		myHistory.add(myLastToken = new PerlTokenHistoryElement(tokenType, tokenText));
-		if (myLastToken.isSignificant())
+		myBuffer = buffer;
+
+		int index = mySize++ & HISTORY_MASK;
+		myTokenTypes[index] = tokenType;
+		myTokenStarts[index] = tokenStart;
+		myTokenEnds[index] = tokenEnd;
+
+		if (!PerlParserDefinition.WHITE_SPACE_AND_COMMENTS.contains(tokenType))
 		{
-			myLastSignificantToken = myLastToken;
+			markToken(LAST_SIGNIFICANT, tokenType, tokenStart, tokenEnd);
 
-			if (myLastToken.getTokenType() != LEFT_BRACE)
+			if (tokenType != LEFT_BRACE)
 			{
-				myLastUnbracedToken = myLastToken;
+				markToken(LAST_UNBRACED, tokenType, tokenStart, tokenEnd);
 			}
 
-			if (myLastToken.getTokenType() != LEFT_PAREN)
+			if (tokenType != LEFT_PAREN)
 			{
-				myLastUnparenToken = myLastToken;
+				markToken(LAST_UNPAREN, tokenType, tokenStart, tokenEnd);
 			}
 		}
 	}
 
+	private void markToken(int mark, IElementType tokenType, int tokenStart, int tokenEnd)
+	{
+		myMarkedTokenTypes[mark] = tokenType;
+		myMarkedTokenStarts[mark] = tokenStart;
+		myMarkedTokenEnds[mark] = tokenEnd;
+	}
+
+	/**
+	 * Returns token type from history
+	 *
+	 * @param tokensBack 0 for the last token, 1 for the previous one and so on, up to {@link #HISTORY_SIZE} - 1
+	 * @return token type or null if there is no such token in history
+	 */
+	@Nullable
+	public IElementType getTokenType(int tokensBack)
+	{
+		return isInHistory(tokensBack) ? myTokenTypes[(mySize - 1 - tokensBack) & HISTORY_MASK] : null;
+	}
+
+	/**
+	 * Returns token text from history
+	 *
+	 * @param tokensBack 0 for the last token, 1 for the previous one and so on, up to {@link #HISTORY_SIZE} - 1
+	 * @return token text or null if there is no such token in history
+	 */
+	@Nullable
+	public CharSequence getTokenText(int tokensBack)
+	{
+		if (!isInHistory(tokensBack))
+		{
+			return null;
+		}
+		int index = (mySize - 1 - tokensBack) & HISTORY_MASK;
+		return myBuffer.subSequence(myTokenStarts[index], myTokenEnds[index]);
+	}
+
+	private boolean isInHistory(int tokensBack)
+	{
+		return tokensBack >= 0 && tokensBack < HISTORY_SIZE && tokensBack < mySize;
+	}
+
+	@Nullable
+	private PerlTokenHistoryElement getMarkedToken(int mark)
+	{
+		IElementType tokenType = myMarkedTokenTypes[mark];
+		return tokenType == null ? null : new PerlTokenHistoryElement(tokenType, getMarkedTokenText(mark));
+	}
+
+	@Nullable
+	private CharSequence getMarkedTokenText(int mark)
+	{
+		return myMarkedTokenTypes[mark] == null ? null : myBuffer.subSequence(myMarkedTokenStarts[mark], myMarkedTokenEnds[mark]);
+	}
+
 	@Nullable
 	public PerlTokenHistoryElement getLastToken()
 	{
-		return myLastToken;
+		IElementType tokenType = getLastTokenType();
+		return tokenType == null ? null : new PerlTokenHistoryElement(tokenType, getLastTokenText());
 	}
 
 	@Nullable
 	public IElementType getLastTokenType()
 	{
-		return myLastToken == null ? null : myLastToken.getTokenType();
+		return getTokenType(0);
 	}
 
 	@Nullable
 	public CharSequence getLastTokenText()
 	{
-		return myLastToken == null ? null : myLastToken.getTokenText();
+		return getTokenText(0);
 	}
 
 	@Nullable
 	public PerlTokenHistoryElement getLastSignificantToken()
 	{
-		return myLastSignificantToken;
+		return getMarkedToken(LAST_SIGNIFICANT);
 	}
 
 	@Nullable
 	public IElementType getLastSignificantTokenType()
 	{
-		return myLastSignificantToken == null ? null : myLastSignificantToken.getTokenType();
+		return myMarkedTokenTypes[LAST_SIGNIFICANT];
 	}
 
 	@Nullable
 	public CharSequence getLastSignificantTokenText()
 	{
-		return myLastSignificantToken == null ? null : myLastSignificantToken.getTokenText();
+		return getMarkedTokenText(LAST_SIGNIFICANT);
 	}
 
 	@Nullable
 	public PerlTokenHistoryElement getLastUnbracedToken()
 	{
-		return myLastUnbracedToken;
+		return getMarkedToken(LAST_UNBRACED);
 	}
 
 	@Nullable
 	public IElementType getLastUnbracedTokenType()
 	{
-		return myLastUnbracedToken == null ? null : myLastUnbracedToken.getTokenType();
+		return myMarkedTokenTypes[LAST_UNBRACED];
 	}
 
 	@Nullable
 	public CharSequence getLastUnbracedTokenText()
 	{
-		return myLastUnbracedToken == null ? null : myLastUnbracedToken.getTokenText();
+		return getMarkedTokenText(LAST_UNBRACED);
 	}
 
 	@Nullable
 	public PerlTokenHistoryElement getLastUnparenToken()
 	{
-		return myLastUnparenToken;
+		return getMarkedToken(LAST_UNPAREN);
 	}
 
 	@Nullable
 	public IElementType getLastUnparenTokenType()
 	{
-		return myLastUnparenToken == null ? null : myLastUnparenToken.getTokenType();
+		return myMarkedTokenTypes[LAST_UNPAREN];
 	}
 
 	@Nullable
 	public CharSequence getLastUnparenTokenText()
 	{
-		return myLastUnparenToken == null ? null : myLastUnparenToken.getTokenText();
+		return getMarkedTokenText(LAST_UNPAREN);
 	}
 
 	@Nullable
 	public String getLastUnparenTokenTextAsString()
 	{
-		return myLastUnparenToken == null ? null : myLastUnparenToken.getTokenTextAsString();
+		CharSequence tokenText = getLastUnparenTokenText();
+		return tokenText == null ? null : tokenText.toString();
 	}
 
-	@NotNull
-	public List<PerlTokenHistoryElement> getHistory()
-	{
-		return myHistory;
-	}
-
-	@Nullable
-	public PerlTokenHistoryElement getPreviousToken(PerlTokenHistoryElement token)
+	public void reset()
 	{
-		int index = getHistory().lastIndexOf(token);
-		if (index > 0)
+		mySize = 0;
+		myBuffer = null;
+		for (int i = 0; i < HISTORY_SIZE; i++)
 		{
-			return getHistory().get(index - 1);
+			myTokenTypes[i] = null;
+		}
+		for (int i = 0; i < myMarkedTokenTypes.length; i++)
+		{
+			myMarkedTokenTypes[i] = null;
 		}
-		return null;
-	}
-
-	public void reset()
-	{
-		myHistory.clear();
-		myLastToken = null;
-		myLastSignificantToken = null;
-		myLastUnbracedToken = null;
-		myLastUnparenToken = null;
 	}
 
-
+	/**
+	 * @return number of tokens registered since last reset
+	 */
 	public int size()
 	{
-		return myHistory.size();
+		return mySize;
 	}
 
+	/**
+	 * Snapshot of the token from history, created on demand
+	 */
 	public static class PerlTokenHistoryElement
 	{
 		private final IElementType myTokenType;
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.lexer;
+
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Map of words to token types, which may be queried with a range of the lexer buffer, so looking up a bareword
+ * allocates nothing. Open addressing table with linear probing; hash is computed over the chars the same way
+ * as {@link String#hashCode()} does. Map is filled on plugin initialization and only read afterwards.
+ */
+public class PerlTokenTypesMap
+{
+	private String[] myKeys;
+	private IElementType[] myValues;
+	private int mySize;
+
+	public PerlTokenTypesMap()
+	{
+		myKeys = new String[32];
+		myValues = new IElementType[32];
+	}
+
+	/**
+	 * Looks up token type for the buffer range
+	 *
+	 * @param buffer buffer to look in
+	 * @param start  range start offset
+	 * @param end    range end offset
+	 * @return token type or null if there is no such word
+	 */
+	@Nullable
+	public IElementType get(@NotNull CharSequence buffer, int start, int end)
+	{
+		if (mySize == 0)
+		{
+			return null;
+		}
+
+		int mask = myKeys.length - 1;
+		for (int slot = hash(buffer, start, end) & mask; ; slot = (slot + 1) & mask)
+		{
+			String key = myKeys[slot];
+			if (key == null)
+			{
+				return null;
+			}
+			if (regionEquals(key, buffer, start, end))
+			{
+				return myValues[slot];
+			}
+		}
+	}
+
+	@Nullable
+	public IElementType get(@NotNull CharSequence word)
+	{
+		return get(word, 0, word.length());
+	}
+
+	public void put(@NotNull String word, @NotNull IElementType tokenType)
+	{
+		if ((mySize + 1) * 2 > myKeys.length)
+		{
+			rehash(myKeys.length << 1);
+		}
+		if (insert(myKeys, myValues, word, tokenType))
+		{
+			mySize++;
+		}
+	}
+
+	public void putAll(@NotNull Map<String, IElementType> tokensMap)
+	{
+		for (Map.Entry<String, IElementType> entry : tokensMap.entrySet())
+		{
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	@NotNull
+	public Collection<IElementType> values()
+	{
+		Collection<IElementType> result = new ArrayList<>(mySize);
+		for (IElementType value : myValues)
+		{
+			if (value != null)
+			{
+				result.add(value);
+			}
+		}
+		return result;
+	}
+
+	public int size()
+	{
+		return mySize;
+	}
+
+	public void clear()
+	{
+		myKeys = new String[32];
+		myValues = new IElementType[32];
+		mySize = 0;
+	}
+
+	private void rehash(int newCapacity)
+	{
+		String[] newKeys = new String[newCapacity];
+		IElementType[] newValues = new IElementType[newCapacity];
+		for (int i = 0; i < myKeys.length; i++)
+		{
+			if (myKeys[i] != null)
+			{
+				insert(newKeys, newValues, myKeys[i], myValues[i]);
+			}
+		}
+		myKeys = newKeys;
+		myValues = newValues;
+	}
+
+	/**
+	 * @return true if new key has been added, false if value for existing key has been replaced
+	 */
+	private static boolean insert(@NotNull String[] keys, @NotNull IElementType[] values, @NotNull String word, @NotNull IElementType tokenType)
+	{
+		int mask = keys.length - 1;
+		for (int slot = hash(word, 0, word.length()) & mask; ; slot = (slot + 1) & mask)
+		{
+			if (keys[slot] == null)
+			{
+				keys[slot] = word;
+				values[slot] = tokenType;
+				return true;
+			}
+			if (keys[slot].equals(word))
+			{
+				values[slot] = tokenType;
+				return false;
+			}
+		}
+	}
+
+	private static int hash(@NotNull CharSequence buffer, int start, int end)
+	{
+		int hash = 0;
+		for (int i = start; i < end; i++)
+		{
+			hash = 31 * hash + buffer.charAt(i);
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+	private static boolean regionEquals(@NotNull String key, @NotNull CharSequence buffer, int start, int end)
+	{
+		int length = key.length();
+		if (length != end - start)
+		{
+			return false;
+		}
+		for (int i = 0; i < length; i++)
+		{
+			if (key.charAt(i) != buffer.charAt(start + i))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -21,6 +21,7 @@ import com.intellij.lexer.FlexLexer;
 import com.intellij.lexer.LexerBase;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.TokenType;
 import com.intellij.psi.tree.IElementType;
 import com.perl5.lang.perl.lexer.PerlElementTypes;
@@ -32,13 +33,14 @@ import java.io.IOException;
 
 /**
  * Created by hurricup on 16.10.2016.
- * First level adapter, working above Flex lexer. Merges code blocks into LP_CODE_BLOCK tokens
+ * First level adapter, working above Flex lexer. Merges code blocks into LP_CODE_BLOCK tokens and disambiguates
+ * barewords: flex lexer works in index-independent mode and names lookup is done here, for the tokens left after merging
  * fixme would be better to use lookahead adapter here; currently small code blocks may be lexed twice
  */
 public class PerlCodeMergingLexerAdapter extends LexerBase implements PerlElementTypes
 {
 	private static final Logger LOG = Logger.getInstance(FlexAdapter.class);
-	private final FlexLexer myFlex;
+	private final PerlLexer myFlex;
 	private int myBufferStart;
 	private IElementType myTokenType;
 	private CharSequence myText;
@@ -50,11 +52,26 @@ public class PerlCodeMergingLexerAdapter extends LexerBase implements PerlElemen
 	private int myState;
 
 	private boolean myAllowToMergeCodeBlocks;
+	private final boolean myResolveBarewords;
+
+	// end of the SUB_NAME token, left after splitting qualified bareword, -1 if none
+	private int myPendingSubNameEnd = -1;
 
 	public PerlCodeMergingLexerAdapter(@Nullable Project project, boolean allowToMergeCodeBlocks)
+	{
+		this(project, allowToMergeCodeBlocks, true);
+	}
+
+	/**
+	 * @param resolveBarewords if false, ambiguous barewords are left as BAREWORD_AMBIGUOUS tokens and lexing result
+	 *                         depends on the text only
+	 */
+	public PerlCodeMergingLexerAdapter(@Nullable Project project, boolean allowToMergeCodeBlocks, boolean resolveBarewords)
 	{
 		myAllowToMergeCodeBlocks = allowToMergeCodeBlocks;
-		myFlex = new PerlLexer(null).withProject(project);
+		myResolveBarewords = resolveBarewords;
+		myFlex = new PerlLexer(null);
+		myFlex.withProject(project).withDeferredBarewordsResolution(project != null);
 	}
 
 	public FlexLexer getFlex()
@@ -70,6 +87,7 @@ public class PerlCodeMergingLexerAdapter extends LexerBase implements PerlElemen
 		myBufferEnd = endOffset;
 		myFlex.reset(myText, startOffset, endOffset, initialState);
 		myTokenType = null;
+		myPendingSubNameEnd = -1;
 	}
 
 	@Override
@@ -127,6 +145,16 @@ public class PerlCodeMergingLexerAdapter extends LexerBase implements PerlElemen
 			return;
 		}
 
+		if (myPendingSubNameEnd > -1)
+		{
+			myTokenStart = myTokenEnd;
+			myTokenEnd = myPendingSubNameEnd;
+			myTokenType = SUB_NAME;
+			myState = PerlLexer.LEX_SUB_NAME;
+			myPendingSubNameEnd = -1;
+			return;
+		}
+
 		try
 		{
 			myTokenStart = myFlex.getTokenEnd();
@@ -134,6 +162,7 @@ public class PerlCodeMergingLexerAdapter extends LexerBase implements PerlElemen
 			myTokenType = myFlex.advance();
 			myTokenEnd = myFlex.getTokenEnd();
 			mergeCode();
+			resolveBareword();
 		}
 		catch (Exception | Error e)
 		{
@@ -143,6 +172,31 @@ public class PerlCodeMergingLexerAdapter extends LexerBase implements PerlElemen
 		}
 	}
 
+	/**
+	 * Disambiguates bareword, lexed in index-independent mode. Qualified sub name is split into QUALIFYING_PACKAGE
+	 * and SUB_NAME tokens, like flex lexer does in normal mode
+	 */
+	protected void resolveBareword()
+	{
+		if (myTokenType != BAREWORD_AMBIGUOUS || !myResolveBarewords)
+		{
+			return;
+		}
+
+		CharSequence tokenText = myText.subSequence(myTokenStart, myTokenEnd);
+		myTokenType = myFlex.disambiguateBareword(tokenText);
+
+		if (myTokenType == QUALIFYING_PACKAGE)
+		{
+			int subNameStart = myTokenStart + StringUtil.lastIndexOfAny(tokenText, ":'") + 1;
+			if (subNameStart < myTokenEnd)
+			{
+				myPendingSubNameEnd = myTokenEnd;
+				myTokenEnd = subNameStart;
+			}
+		}
+	}
+
 	protected void mergeCode() throws IOException
 	{
 		if (myTokenType != LEFT_BRACE_CODE_START)
@@ -23,6 +23,7 @@ import com.intellij.psi.stubs.IndexSink;
 import com.intellij.psi.stubs.StubElement;
 import com.intellij.psi.stubs.StubInputStream;
 import com.intellij.psi.stubs.StubOutputStream;
+import com.perl5.lang.perl.idea.stubs.PerlPackageMembersStubIndex;
 import com.perl5.lang.perl.idea.stubs.subsdefinitions.PerlSubDefinitionStub;
 import com.perl5.lang.perl.idea.stubs.subsdefinitions.PerlSubDefinitionStubElementType;
 import com.perl5.lang.perl.idea.stubs.subsdefinitions.PerlSubDefinitionsStubIndex;
@@ -110,7 +111,7 @@ public class ClassAccessorDeclarationStubElementType extends PerlSubDefinitionSt
 				sink.occurrence(PerlSubDefinitionsStubIndex.KEY, ((PerlClassAccessorDeclarationStub) stub).getSetterCanonicalName());
 			}
 
-			sink.occurrence(PerlSubDefinitionsStubIndex.KEY, "*" + stub.getPackageName());
+			sink.occurrence(PerlPackageMembersStubIndex.KEY, stub.getPackageName());
 		}
 		else
 		{
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.parser.elementTypes;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Function;
+
+/**
+ * Composite element type, generated from the grammar. PSI factory is resolved by name on first PSI creation
+ *
+ * @see PerlElementTypeFactory#getPsiFactory(String)
+ */
+public class PerlGeneratedElementType extends PerlElementTypeEx
+{
+	private volatile Function<ASTNode, PsiElement> myPsiFactory;
+
+	public PerlGeneratedElementType(@NotNull @NonNls String debugName)
+	{
+		super(debugName);
+	}
+
+	@NotNull
+	@Override
+	public PsiElement getPsiElement(@NotNull ASTNode node)
+	{
+		Function<ASTNode, PsiElement> psiFactory = myPsiFactory;
+		if (psiFactory == null)
+		{
+			psiFactory = PerlElementTypeFactory.getPsiFactory(toString());
+			if (psiFactory == null)
+			{
+				throw new RuntimeException("Unknown element type:" + this);
+			}
+			myPsiFactory = psiFactory;
+		}
+		return psiFactory.apply(node);
+	}
+}
@@ -23,7 +23,7 @@ import com.intellij.lang.PsiParser;
 import com.intellij.lexer.Lexer;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.tree.ILazyParseableElementType;
+import com.intellij.psi.tree.IReparseableElementType;
 import com.perl5.lang.perl.PerlLanguage;
 import com.perl5.lang.perl.lexer.adapters.PerlMergingLexerAdapter;
 import com.perl5.lang.perl.psi.impl.PerlCompositeElementImpl;
@@ -32,8 +32,10 @@ import org.jetbrains.annotations.NotNull;
 
 /**
  * Created by hurricup on 23.10.2016.
+ * Base type for lazy parseable perl blocks. Blocks are not reparseable by default, subclasses may allow in-place
+ * reparsing by overriding {@link #isParsable(CharSequence, com.intellij.lang.Language, Project)}
  */
-public abstract class PerlLazyBlockElementType extends ILazyParseableElementType implements PsiElementProvider
+public abstract class PerlLazyBlockElementType extends IReparseableElementType implements PsiElementProvider
 {
 	public PerlLazyBlockElementType(@NotNull @NonNls String debugName)
 	{
@@ -16,9 +16,14 @@
 
 package com.perl5.lang.perl.parser.elementTypes;
 
+import com.intellij.lang.Language;
 import com.intellij.lang.PsiParser;
 import com.intellij.lexer.Lexer;
 import com.intellij.openapi.project.Project;
+import com.intellij.psi.tree.IElementType;
+import com.perl5.lang.perl.lexer.PerlBracesStack;
+import com.perl5.lang.perl.lexer.PerlElementTypes;
+import com.perl5.lang.perl.lexer.adapters.PerlCodeMergingLexerAdapter;
 import com.perl5.lang.perl.lexer.adapters.PerlSublexingLexerAdapter;
 import com.perl5.lang.perl.parser.PerlLazyBlockParser;
 import org.jetbrains.annotations.NonNls;
@@ -26,8 +31,10 @@ import org.jetbrains.annotations.NotNull;
 
 /**
  * Created by hurricup on 16.10.2016.
+ * Code block is reparseable in place, if after the change it is still a single block with balanced braces, so
+ * surrounding tokens stay the same.
  */
-public class PerlLazyCodeBlockElementType extends PerlLazyBlockElementType
+public class PerlLazyCodeBlockElementType extends PerlLazyBlockElementType implements PerlElementTypes
 {
 	public PerlLazyCodeBlockElementType(@NotNull @NonNls String debugName)
 	{
@@ -47,4 +54,60 @@ public class PerlLazyCodeBlockElementType extends PerlLazyBlockElementType
 	{
 		return PerlLazyBlockParser.INSTANCE;
 	}
+
+	@Override
+	public boolean isParsable(CharSequence buffer, Language fileLanguage, Project project)
+	{
+		return isBalancedBlock(buffer, project);
+	}
+
+	/**
+	 * Checks that buffer is a single code block: it starts with left brace, ends with matching right brace and
+	 * contains no heredoc openers, which bodies may be outside of the block
+	 *
+	 * @param buffer  block text
+	 * @param project project to lex with
+	 * @return true if block may be reparsed in place
+	 */
+	public static boolean isBalancedBlock(@NotNull CharSequence buffer, @NotNull Project project)
+	{
+		int bufferLength = buffer.length();
+		if (bufferLength < 2 || buffer.charAt(0) != '{' || buffer.charAt(bufferLength - 1) != '}')
+		{
+			return false;
+		}
+
+		Lexer lexer = new PerlCodeMergingLexerAdapter(project, false);
+		lexer.start(buffer);
+
+		PerlBracesStack bracesStack = new PerlBracesStack();
+		IElementType tokenType;
+		while ((tokenType = lexer.getTokenType()) != null)
+		{
+			if (tokenType == LEFT_BRACE || tokenType == LEFT_BRACE_CODE_START)
+			{
+				bracesStack.push(lexer.getTokenStart());
+			}
+			else if (tokenType == RIGHT_BRACE)
+			{
+				if (bracesStack.isEmpty())
+				{
+					return false;
+				}
+				bracesStack.pop();
+				if (bracesStack.isEmpty())
+				{
+					// block should be closed with the last char
+					return lexer.getTokenEnd() == bufferLength;
+				}
+			}
+			else if (tokenType == HEREDOC_OPENER)
+			{
+				return false;
+			}
+			lexer.advance();
+		}
+
+		return false;
+	}
 }
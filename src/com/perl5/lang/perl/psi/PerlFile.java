@@ -20,10 +20,12 @@ import com.intellij.navigation.ItemPresentation;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.perl5.lang.perl.extensions.PerlCodeGenerator;
 import com.perl5.lang.perl.psi.properties.PerlLabelScope;
 import com.perl5.lang.perl.psi.properties.PerlLexicalScope;
 import com.perl5.lang.pod.parser.psi.PodLinkTarget;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Set;
@@ -40,6 +42,14 @@ public interface PerlFile extends PsiFile, PerlLexicalScope, PerlNamespaceContai
 	 */
 	void collectIncludedFiles(Set<VirtualFile> includedVirtualFiles);
 
+	/**
+	 * Returns cached search scope with files, transitively included in current file, including the file itself
+	 *
+	 * @return search scope
+	 */
+	@NotNull
+	GlobalSearchScope getIncludedFilesScope();
+
 
 	/**
 	 * Returns generator for overriding elements
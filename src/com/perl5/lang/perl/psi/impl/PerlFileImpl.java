@@ -27,23 +27,15 @@ import com.intellij.psi.*;
 import com.intellij.psi.impl.source.PsiFileImpl;
 import com.intellij.psi.scope.PsiScopeProcessor;
 import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.psi.stubs.ObjectStubTree;
-import com.intellij.psi.stubs.PsiFileStub;
-import com.intellij.psi.stubs.StubElement;
-import com.intellij.psi.stubs.StubTreeLoader;
-import com.intellij.psi.util.PsiTreeUtil;
 import com.perl5.lang.perl.PerlLanguage;
 import com.perl5.lang.perl.extensions.PerlCodeGenerator;
 import com.perl5.lang.perl.extensions.generation.PerlCodeGeneratorImpl;
 import com.perl5.lang.perl.extensions.packageprocessor.PerlExportDescriptor;
 import com.perl5.lang.perl.fileTypes.PerlFileTypePackage;
 import com.perl5.lang.perl.fileTypes.PerlFileTypeScript;
-import com.perl5.lang.perl.idea.stubs.imports.PerlUseStatementStub;
-import com.perl5.lang.perl.idea.stubs.imports.runtime.PerlRuntimeImportStub;
-import com.perl5.lang.perl.psi.PerlDoExpr;
+import com.perl5.lang.perl.idea.project.PerlIncludesCache;
 import com.perl5.lang.perl.psi.PerlFile;
 import com.perl5.lang.perl.psi.PerlNamespaceDefinition;
-import com.perl5.lang.perl.psi.PerlUseStatement;
 import com.perl5.lang.perl.psi.mro.PerlMro;
 import com.perl5.lang.perl.psi.mro.PerlMroC3;
 import com.perl5.lang.perl.psi.mro.PerlMroDfs;
@@ -65,7 +57,6 @@ import java.util.*;
 public class PerlFileImpl extends PsiFileBase implements PerlFile
 {
 	private static final ArrayList<PerlNamespaceDefinition> EMPTY_LIST = new ArrayList<PerlNamespaceDefinition>();
-	protected GlobalSearchScope myElementsResolveScope;
 	protected PsiElement fileContext;
 
 	protected Map<Integer, Boolean> isNewLineFobiddenAtLine = new THashMap<Integer, Boolean>();
@@ -202,135 +193,19 @@ public class PerlFileImpl extends PsiFileBase implements PerlFile
 		return PerlHashUtil.getImportedHashesDescriptors(this);
 	}
 
-//	@Override
-//	@NotNull
-//	public GlobalSearchScope getElementsResolveScope()
-//	{
-//		if (myElementsResolveScope != null)
-//			return myElementsResolveScope;
-//
-//		long t = System.currentTimeMillis();
-//		Set<VirtualFile> filesToSearch = new THashSet<VirtualFile>();
-//		collectIncludedFiles(filesToSearch);
-//		myElementsResolveScope = GlobalSearchScope.filesScope(getProject(), filesToSearch);
-//
-//		System.err.println("Collected in ms: " + (System.currentTimeMillis() - t) / 1000);
-//
-//		return myElementsResolveScope;
-//	}
-
+	@NotNull
 	@Override
-	public void collectIncludedFiles(Set<VirtualFile> includedVirtualFiles)
-	{
-		if (!includedVirtualFiles.contains(getVirtualFile()))
-		{
-			includedVirtualFiles.add(getVirtualFile());
-
-			StubElement fileStub = getStub();
-
-			if (fileStub == null)
-			{
-//				System.err.println("Collecting from psi for " + getVirtualFile());
-				collectRequiresFromPsi(this, includedVirtualFiles);
-			}
-			else
-			{
-//				System.err.println("Collecting from stubs for " + getVirtualFile());
-				collectRequiresFromStub(fileStub, includedVirtualFiles);
-			}
-		}
-	}
-
-	protected void collectRequiresFromVirtualFile(VirtualFile virtualFile, Set<VirtualFile> includedVirtualFiles)
+	public GlobalSearchScope getIncludedFilesScope()
 	{
-		if (!includedVirtualFiles.contains(virtualFile))
-		{
-			includedVirtualFiles.add(virtualFile);
-
-			ObjectStubTree objectStubTree = StubTreeLoader.getInstance().readOrBuild(getProject(), virtualFile, null);
-			if (objectStubTree != null)
-			{
-//				System.err.println("Collecting from stub for " + virtualFile);
-				collectRequiresFromStub((PsiFileStub) objectStubTree.getRoot(), includedVirtualFiles);
-			}
-			else
-			{
-//				System.err.println("Collecting from psi for " + virtualFile);
-				PsiFile targetPsiFile = PsiManager.getInstance(getProject()).findFile(virtualFile);
-				if (targetPsiFile != null)
-				{
-					collectRequiresFromPsi(targetPsiFile, includedVirtualFiles);
-				}
-			}
-		}
-	}
-
-	protected void collectRequiresFromStub(@NotNull StubElement currentStub, Set<VirtualFile> includedVirtualFiles)
-	{
-		VirtualFile virtualFile = null;
-		if (currentStub instanceof PerlUseStatementStub)
-		{
-			String packageName = ((PerlUseStatementStub) currentStub).getPackageName();
-			if (packageName != null)
-			{
-				virtualFile = PerlPackageUtil.resolvePackageNameToVirtualFile(this, packageName);
-			}
-
-		}
-		if (currentStub instanceof PerlRuntimeImportStub)
-		{
-			String importPath = ((PerlRuntimeImportStub) currentStub).getImportPath();
-			if (importPath != null)
-			{
-				virtualFile = PerlPackageUtil.resolveRelativePathToVirtualFile(this, importPath);
-			}
-		}
-
-		if (virtualFile != null)
-		{
-			collectRequiresFromVirtualFile(virtualFile, includedVirtualFiles);
-		}
-
-		for (Object childStub : currentStub.getChildrenStubs())
-		{
-			assert childStub instanceof StubElement : childStub.getClass();
-			collectRequiresFromStub((StubElement) childStub, includedVirtualFiles);
-		}
+		return PerlIncludesCache.getInstance(getProject()).getIncludedFilesScope(this);
 	}
 
-
-	/**
-	 * Collects required files from psi structure, used in currently modified document
-	 *
-	 * @param includedVirtualFiles set of already collected virtual files
-	 */
-	protected void collectRequiresFromPsi(PsiFile psiFile, Set<VirtualFile> includedVirtualFiles)
+	@Override
+	public void collectIncludedFiles(Set<VirtualFile> includedVirtualFiles)
 	{
-		for (PsiElement importStatement : PsiTreeUtil.<PsiElement>findChildrenOfAnyType(psiFile, PerlUseStatement.class, PerlDoExpr.class))
+		if (!includedVirtualFiles.contains(getVirtualFile()))
 		{
-			VirtualFile virtualFile = null;
-			if (importStatement instanceof PerlUseStatement)
-			{
-				String packageName = ((PerlUseStatement) importStatement).getPackageName();
-				if (packageName != null)
-				{
-					virtualFile = PerlPackageUtil.resolvePackageNameToVirtualFile(this, packageName);
-				}
-			}
-			else if (importStatement instanceof PerlDoExpr)
-			{
-				String importPath = ((PerlDoExpr) importStatement).getImportPath();
-
-				if (importPath != null)
-				{
-					virtualFile = PerlPackageUtil.resolveRelativePathToVirtualFile(this, ((PerlDoExpr) importStatement).getImportPath());
-				}
-			}
-
-			if (virtualFile != null)
-			{
-				collectRequiresFromVirtualFile(virtualFile, includedVirtualFiles);
-			}
+			includedVirtualFiles.addAll(PerlIncludesCache.getInstance(getProject()).getIncludedFiles(this));
 		}
 	}
 
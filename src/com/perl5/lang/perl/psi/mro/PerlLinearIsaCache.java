@@ -0,0 +1,276 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.psi.mro;
+
+import com.intellij.ProjectTopics;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.fileTypes.FileTypeManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootAdapter;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.psi.*;
+import com.intellij.psi.impl.PsiTreeChangeEventImpl;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.PathUtil;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.messages.MessageBusConnection;
+import com.perl5.lang.perl.fileTypes.PerlFileType;
+import com.perl5.lang.perl.psi.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Project-level cache of linearized @ISA for packages, for DFS and C3 resolution orders.
+ * Cache is dropped when something, that may affect namespaces and their parents, changes: perl psi outside of sub
+ * blocks, perl files changed without psi events (external changes, vcs updates), project roots or indexes after dumb mode.
+ * Typing inside sub blocks keeps the cache, unless subs, globs, namespaces or use statements are added or removed there.
+ */
+public class PerlLinearIsaCache implements ModificationTracker
+{
+	@SuppressWarnings("unchecked")
+	private static final Class<? extends PsiElement>[] STRUCTURE_ELEMENTS = new Class[]{
+			PerlSubBase.class,
+			PerlGlobVariable.class,
+			PerlNamespaceDefinition.class,
+			PerlUseStatement.class
+	};
+
+	private final AtomicLong myModificationCounter = new AtomicLong();
+	private final Map<String, List<String>> myLinearIsa = ContainerUtil.newConcurrentMap();
+	private final Map<String, List<String>> mySuperLinearIsa = ContainerUtil.newConcurrentMap();
+
+	public PerlLinearIsaCache(@NotNull Project project)
+	{
+		PsiManager.getInstance(project).addPsiTreeChangeListener(new LinearIsaPsiTreeChangeListener(), project);
+
+		MessageBusConnection connection = project.getMessageBus().connect(project);
+		connection.subscribe(ProjectTopics.PROJECT_ROOTS, new ModuleRootAdapter()
+		{
+			@Override
+			public void rootsChanged(ModuleRootEvent event)
+			{
+				dropCache();
+			}
+		});
+		connection.subscribe(DumbService.DUMB_MODE, new DumbService.DumbModeListener()
+		{
+			@Override
+			public void enteredDumbMode()
+			{
+			}
+
+			@Override
+			public void exitDumbMode()
+			{
+				dropCache();
+			}
+		});
+		connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener.Adapter()
+		{
+			@Override
+			public void after(@NotNull List<? extends VFileEvent> events)
+			{
+				for (VFileEvent event : events)
+				{
+					if (isPerlFilesEvent(event))
+					{
+						dropCache();
+						return;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Checks if vfs event may change perl files contents or set. Content changes on save are covered by psi events
+	 */
+	private static boolean isPerlFilesEvent(@NotNull VFileEvent event)
+	{
+		if (event instanceof VFileContentChangeEvent && event.isFromSave())
+		{
+			return false;
+		}
+		VirtualFile file = event.getFile();
+		if (file != null)
+		{
+			return file.isDirectory() || file.getFileType() instanceof PerlFileType;
+		}
+		return FileTypeManager.getInstance().getFileTypeByFileName(PathUtil.getFileName(event.getPath())) instanceof PerlFileType;
+	}
+
+	public static PerlLinearIsaCache getInstance(@NotNull Project project)
+	{
+		return ServiceManager.getService(project, PerlLinearIsaCache.class);
+	}
+
+	/**
+	 * Returns cached linear @ISA for the package, computing it if necessary
+	 *
+	 * @param project     current project
+	 * @param packageName package name
+	 * @param isSuper     if false - current package is included into the list, true - otherwise
+	 * @return unmodifiable list of package names
+	 */
+	@NotNull
+	public List<String> getLinearISA(@NotNull Project project, @NotNull String packageName, boolean isSuper)
+	{
+		Map<String, List<String>> cache = isSuper ? mySuperLinearIsa : myLinearIsa;
+		List<String> result = cache.get(packageName);
+		if (result == null)
+		{
+			long modificationCount = myModificationCounter.get();
+			result = Collections.unmodifiableList(PerlMro.computeLinearISA(project, packageName, isSuper));
+			if (modificationCount == myModificationCounter.get() && !DumbService.isDumb(project))
+			{
+				cache.put(packageName, result);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public long getModificationCount()
+	{
+		return myModificationCounter.get();
+	}
+
+	public void dropCache()
+	{
+		myModificationCounter.incrementAndGet();
+		myLinearIsa.clear();
+		mySuperLinearIsa.clear();
+	}
+
+	private class LinearIsaPsiTreeChangeListener extends PsiTreeChangeAdapter
+	{
+		@Override
+		public void childAdded(@NotNull PsiTreeChangeEvent event)
+		{
+			processEvent(event, event.getChild());
+		}
+
+		@Override
+		public void childRemoved(@NotNull PsiTreeChangeEvent event)
+		{
+			processEvent(event, event.getChild());
+		}
+
+		@Override
+		public void childReplaced(@NotNull PsiTreeChangeEvent event)
+		{
+			processEvent(event, event.getOldChild(), event.getNewChild());
+		}
+
+		@Override
+		public void childMoved(@NotNull PsiTreeChangeEvent event)
+		{
+			processEvent(event, event.getChild());
+		}
+
+		@Override
+		public void childrenChanged(@NotNull PsiTreeChangeEvent event)
+		{
+			// generic events duplicate specific ones, fired for the same change
+			if (event instanceof PsiTreeChangeEventImpl && ((PsiTreeChangeEventImpl) event).isGenericChange())
+			{
+				return;
+			}
+			processEvent(event, event.getParent());
+		}
+
+		@Override
+		public void propertyChanged(@NotNull PsiTreeChangeEvent event)
+		{
+			processEvent(event, event.getElement());
+		}
+
+		private void processEvent(@NotNull PsiTreeChangeEvent event, @Nullable PsiElement... changedElements)
+		{
+			PsiFile file = event.getFile();
+			if (file != null && !(file instanceof PerlFile))
+			{
+				return;
+			}
+
+			PsiElement element = event.getParent();
+			if (element == null)
+			{
+				element = event.getElement();
+			}
+
+			if (!isInsideSubBlock(element) || containsStructureElements(changedElements))
+			{
+				dropCache();
+			}
+		}
+
+		/**
+		 * @return true if element is strictly inside the block of some sub definition, sub signature and name are not counted
+		 */
+		private boolean isInsideSubBlock(@Nullable PsiElement element)
+		{
+			if (element == null || element instanceof PsiFile)
+			{
+				return false;
+			}
+
+			for (PerlSubDefinitionBase subDefinition = PsiTreeUtil.getParentOfType(element, PerlSubDefinitionBase.class, false);
+				 subDefinition != null;
+				 subDefinition = PsiTreeUtil.getParentOfType(subDefinition, PerlSubDefinitionBase.class, true))
+			{
+				PsiElement subBlock = subDefinition.getBlockSmart();
+				if (subBlock != null && PsiTreeUtil.isAncestor(subBlock, element, false))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @return true if some of elements is or contains an element that may affect packages structure
+		 */
+		private boolean containsStructureElements(@Nullable PsiElement... elements)
+		{
+			if (elements == null)
+			{
+				return false;
+			}
+			for (PsiElement element : elements)
+			{
+				if (element != null && PsiTreeUtil.findChildOfAnyType(element, false, STRUCTURE_ELEMENTS) != null)
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
@@ -17,7 +17,11 @@
 package com.perl5.lang.perl.psi.mro;
 
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Condition;
+import com.intellij.openapi.util.Conditions;
 import com.intellij.psi.PsiElement;
+import com.perl5.lang.perl.extensions.PerlCompletionElementsProvider;
+import com.perl5.lang.perl.idea.project.PerlPackageMemberNamesCache;
 import com.perl5.lang.perl.psi.PerlGlobVariable;
 import com.perl5.lang.perl.psi.PerlNamespaceDefinition;
 import com.perl5.lang.perl.psi.PerlSubDeclaration;
@@ -61,7 +65,7 @@ public abstract class PerlMro
 			packageName = PerlPackageUtil.UNIVERSAL_PACKAGE;
 		}
 
-		Collection<String> linearISA = getLinearISA(project, packageName, isSuper);
+		Collection<String> linearISA = PerlLinearIsaCache.getInstance(project).getLinearISA(project, packageName, isSuper);
 
 		for (String currentPackageName : linearISA)
 		{
@@ -110,32 +114,89 @@ public abstract class PerlMro
 	 * @return collection of definitions
 	 */
 	public static Collection<PsiElement> getVariants(Project project, String basePackageName, boolean isSuper)
+	{
+		return getVariants(project, basePackageName, isSuper, Conditions.<String>alwaysTrue());
+	}
+
+	/**
+	 * Returns collection of Sub Definitions of class and it's superclasses according perl's default MRO, with names,
+	 * acceptable by condition. Packages without acceptable names are not processed at all
+	 *
+	 * @param project         Current project
+	 * @param basePackageName base project
+	 * @param isSuper         flag for SUPER resolutions
+	 * @param nameCondition   condition for subs and globs names, e.g. completion prefix matcher; elements, providing
+	 *                        own completion variants are accepted regardless of it
+	 * @return collection of definitions
+	 */
+	public static Collection<PsiElement> getVariants(Project project, String basePackageName, boolean isSuper, @NotNull final Condition<String> nameCondition)
 	{
 		HashMap<String, PsiElement> methods = new HashMap<String, PsiElement>();
 
 		if (basePackageName != null)
 		{
-			for (String packageName : getLinearISA(project, basePackageName, isSuper))
+			boolean isFiltered = nameCondition != Conditions.<String>alwaysTrue();
+			PerlPackageMemberNamesCache memberNamesCache = PerlPackageMemberNamesCache.getInstance(project);
+
+			for (String packageName : PerlLinearIsaCache.getInstance(project).getLinearISA(project, basePackageName, isSuper))
 			{
-				for (PerlSubDefinitionBase subDefinition : PerlSubUtil.getSubDefinitions(project, "*" + packageName))
+				if (isFiltered && !memberNamesCache.hasMatchingMembers(packageName, nameCondition))
+				{
+					continue;
+				}
+
+				final List<PsiElement> subDefinitions = new ArrayList<PsiElement>();
+				final List<PsiElement> subDeclarations = new ArrayList<PsiElement>();
+				final List<PsiElement> globs = new ArrayList<PsiElement>();
+
+				PerlSubUtil.processPackageMembers(project, packageName, member -> {
+					if (member instanceof PerlSubDefinitionBase)
+					{
+						if (member instanceof PerlCompletionElementsProvider || nameCondition.value(((PerlSubDefinitionBase) member).getSubName()))
+						{
+							subDefinitions.add(member);
+						}
+					}
+					else if (member instanceof PerlSubDeclaration)
+					{
+						if (nameCondition.value(((PerlSubDeclaration) member).getSubName()))
+						{
+							subDeclarations.add(member);
+						}
+					}
+					else if (member instanceof PerlGlobVariable && ((PerlGlobVariable) member).isLeftSideOfAssignment())
+					{
+						if (nameCondition.value(((PerlGlobVariable) member).getName()))
+						{
+							globs.add(member);
+						}
+					}
+					return true;
+				});
+
+				// definitions have priority over declarations and globs of the same package
+				for (PsiElement subDefinition : subDefinitions)
 				{
-					if (!methods.containsKey(subDefinition.getSubName()))
+					String subName = ((PerlSubDefinitionBase) subDefinition).getSubName();
+					if (!methods.containsKey(subName))
 					{
-						methods.put(subDefinition.getSubName(), subDefinition);
+						methods.put(subName, subDefinition);
 					}
 				}
-				for (PerlSubDeclaration subDeclaration : PerlSubUtil.getSubDeclarations(project, "*" + packageName))
+				for (PsiElement subDeclaration : subDeclarations)
 				{
-					if (!methods.containsKey(subDeclaration.getSubName()))
+					String subName = ((PerlSubDeclaration) subDeclaration).getSubName();
+					if (!methods.containsKey(subName))
 					{
-						methods.put(subDeclaration.getSubName(), subDeclaration);
+						methods.put(subName, subDeclaration);
 					}
 				}
-				for (PerlGlobVariable globVariable : PerlGlobUtil.getGlobsDefinitions(project, "*" + packageName))
+				for (PsiElement globVariable : globs)
 				{
-					if (globVariable.isLeftSideOfAssignment() && !methods.containsKey(globVariable.getName()))
+					String globName = ((PerlGlobVariable) globVariable).getName();
+					if (!methods.containsKey(globName))
 					{
-						methods.put(globVariable.getName(), globVariable);
+						methods.put(globName, globVariable);
 					}
 				}
 			}
@@ -145,7 +206,7 @@ public abstract class PerlMro
 	}
 
 	/**
-	 * Building linear @ISA list
+	 * Returns linear @ISA list, cached on the project level
 	 *
 	 * @param project     current project
 	 * @param packageName current package name
@@ -153,6 +214,19 @@ public abstract class PerlMro
 	 * @return list of linear @ISA
 	 */
 	public static ArrayList<String> getLinearISA(Project project, @NotNull String packageName, boolean isSuper)
+	{
+		return new ArrayList<String>(PerlLinearIsaCache.getInstance(project).getLinearISA(project, packageName, isSuper));
+	}
+
+	/**
+	 * Building linear @ISA list
+	 *
+	 * @param project     current project
+	 * @param packageName current package name
+	 * @param isSuper     if false - we include current package into the list, true - otherwise
+	 * @return list of linear @ISA
+	 */
+	static ArrayList<String> computeLinearISA(Project project, @NotNull String packageName, boolean isSuper)
 	{
 		HashSet<String> recursionMap = new HashSet<String>();
 		ArrayList<String> result = new ArrayList<String>();
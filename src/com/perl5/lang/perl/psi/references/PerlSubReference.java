@@ -22,6 +22,7 @@ import com.intellij.psi.PsiFile;
 import com.intellij.psi.ResolveResult;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.perl5.lang.perl.extensions.packageprocessor.PerlExportDescriptor;
+import com.perl5.lang.perl.extensions.packageprocessor.PerlImportsTable;
 import com.perl5.lang.perl.idea.configuration.settings.PerlSharedSettings;
 import com.perl5.lang.perl.psi.*;
 import com.perl5.lang.perl.psi.mro.PerlMro;
@@ -150,29 +151,26 @@ public class PerlSubReference extends PerlSubReferenceSimple
 
 						if (namespaceContainer != null)
 						{
-							for (PerlExportDescriptor exportDescriptor : namespaceContainer.getImportedSubsDescriptors())
+							for (PerlExportDescriptor exportDescriptor : PerlImportsTable.getImportsTable(namespaceContainer).getDescriptors('&', subName))
 							{
-								if (exportDescriptor.getExportedName().equals(subName))
+								int currentSize = relatedItems.size();
+								collectRelatedItems(
+										exportDescriptor.getTargetCanonicalName(),
+										project,
+										parent,
+										relatedItems,
+										globalSearchScope
+								);
+
+								if (relatedItems.size() == currentSize)    // imported, but not found, attempting autoload
 								{
-									int currentSize = relatedItems.size();
 									collectRelatedItems(
-											exportDescriptor.getTargetCanonicalName(),
+											exportDescriptor.getTargetPackage() + PerlSubUtil.SUB_AUTOLOAD_WITH_PREFIX,
 											project,
 											parent,
 											relatedItems,
 											globalSearchScope
 									);
-
-									if (relatedItems.size() == currentSize)    // imported, but not found, attempting autoload
-									{
-										collectRelatedItems(
-												exportDescriptor.getTargetPackage() + PerlSubUtil.SUB_AUTOLOAD_WITH_PREFIX,
-												project,
-												parent,
-												relatedItems,
-												globalSearchScope
-										);
-									}
 								}
 							}
 						}
@@ -185,18 +183,15 @@ public class PerlSubReference extends PerlSubReferenceSimple
 							// fixme partially not DRY with previous block
 							for (PerlNamespaceDefinition namespaceDefinition : PerlPackageUtil.getNamespaceDefinitions(project, targetPackageName))
 							{
-								for (PerlExportDescriptor exportDescriptor : namespaceDefinition.getImportedSubsDescriptors())
+								for (PerlExportDescriptor exportDescriptor : PerlImportsTable.getImportsTable(namespaceDefinition).getDescriptors('&', subName))
 								{
-									if (exportDescriptor.getExportedName().equals(subName))
-									{
-										collectRelatedItems(
-												exportDescriptor.getTargetCanonicalName(),
-												project,
-												parent,
-												relatedItems,
-												globalSearchScope
-										);
-									}
+									collectRelatedItems(
+											exportDescriptor.getTargetCanonicalName(),
+											project,
+											parent,
+											relatedItems,
+											globalSearchScope
+									);
 								}
 							}
 						}
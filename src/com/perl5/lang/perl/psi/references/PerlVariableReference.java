@@ -22,6 +22,7 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementResolveResult;
 import com.intellij.psi.ResolveResult;
 import com.perl5.lang.perl.extensions.packageprocessor.PerlExportDescriptor;
+import com.perl5.lang.perl.extensions.packageprocessor.PerlImportsTable;
 import com.perl5.lang.perl.psi.*;
 import com.perl5.lang.perl.psi.utils.PerlResolveUtil;
 import com.perl5.lang.perl.psi.utils.PerlVariableType;
@@ -77,43 +78,35 @@ public class PerlVariableReference extends PerlCachingReference<PsiElement>
 			if (namespaceContainer != null) // not true if LPE in TemplateToolkit
 			{
 				String variableName = myVariable.getName();
+				PerlImportsTable importsTable = PerlImportsTable.getImportsTable(namespaceContainer);
 
 				if (actualType == PerlVariableType.SCALAR)
 				{
-					for (PerlExportDescriptor importEntry : namespaceContainer.getImportedScalarDescriptors())
+					for (PerlExportDescriptor importEntry : importsTable.getDescriptors('$', variableName))
 					{
-						if (importEntry.getExportedName().equals(variableName))
+						for (PerlVariableDeclarationWrapper targetVariable : PerlScalarUtil.getGlobalScalarDefinitions(project, importEntry.getTargetCanonicalName()))
 						{
-							for (PerlVariableDeclarationWrapper targetVariable : PerlScalarUtil.getGlobalScalarDefinitions(project, importEntry.getTargetCanonicalName()))
-							{
-								result.add(new PsiElementResolveResult(targetVariable));
-							}
+							result.add(new PsiElementResolveResult(targetVariable));
 						}
 					}
 				}
 				else if (actualType == PerlVariableType.ARRAY)
 				{
-					for (PerlExportDescriptor importEntry : namespaceContainer.getImportedArrayDescriptors())
+					for (PerlExportDescriptor importEntry : importsTable.getDescriptors('@', variableName))
 					{
-						if (importEntry.getExportedName().equals(variableName))
+						for (PerlVariableDeclarationWrapper targetVariable : PerlArrayUtil.getGlobalArrayDefinitions(project, importEntry.getTargetCanonicalName()))
 						{
-							for (PerlVariableDeclarationWrapper targetVariable : PerlArrayUtil.getGlobalArrayDefinitions(project, importEntry.getTargetCanonicalName()))
-							{
-								result.add(new PsiElementResolveResult(targetVariable));
-							}
+							result.add(new PsiElementResolveResult(targetVariable));
 						}
 					}
 				}
 				else if (actualType == PerlVariableType.HASH)
 				{
-					for (PerlExportDescriptor importEntry : namespaceContainer.getImportedHashDescriptors())
+					for (PerlExportDescriptor importEntry : importsTable.getDescriptors('%', variableName))
 					{
-						if (importEntry.getExportedName().equals(variableName))
+						for (PerlVariableDeclarationWrapper targetVariable : PerlHashUtil.getGlobalHashDefinitions(project, importEntry.getTargetCanonicalName()))
 						{
-							for (PerlVariableDeclarationWrapper targetVariable : PerlHashUtil.getGlobalHashDefinitions(project, importEntry.getTargetCanonicalName()))
-							{
-								result.add(new PsiElementResolveResult(targetVariable));
-							}
+							result.add(new PsiElementResolveResult(targetVariable));
 						}
 					}
 				}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.psi.utils;
+
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.perl5.lang.perl.psi.PerlVariable;
+import com.perl5.lang.perl.psi.PerlVariableDeclarationWrapper;
+import gnu.trove.THashMap;
+import gnu.trove.THashSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lexical bindings of the file: lexical declaration for every variable and declarations used by some variable.
+ * Computed in one pass over the file, cached on it and shared by variables inspections, which are checking every
+ * variable of the file anyway. Reference resolve keeps using {@link PerlResolveUtil#getLexicalDeclaration(PerlVariable)},
+ * because it is invoked for single variables, e.g. by navigation, find usages or completion file copies.
+ */
+public class PerlLexicalBindings
+{
+	private final Map<PerlVariable, PerlVariableDeclarationWrapper> myLexicalDeclarations = new THashMap<PerlVariable, PerlVariableDeclarationWrapper>();
+	private final Set<PerlVariableDeclarationWrapper> myUsedDeclarations = new THashSet<PerlVariableDeclarationWrapper>();
+
+	private PerlLexicalBindings(@NotNull PsiFile file)
+	{
+		PsiTreeUtil.processElements(file, element ->
+		{
+			if (element instanceof PerlVariable)
+			{
+				PerlVariable variable = (PerlVariable) element;
+				PerlVariableDeclarationWrapper lexicalDeclaration = PerlResolveUtil.getLexicalDeclaration(variable);
+				myLexicalDeclarations.put(variable, lexicalDeclaration);
+				if (lexicalDeclaration != null && !(variable.getParent() instanceof PerlVariableDeclarationWrapper))
+				{
+					myUsedDeclarations.add(lexicalDeclaration);
+				}
+			}
+			return true;
+		});
+	}
+
+	@NotNull
+	public static PerlLexicalBindings getInstance(@NotNull final PsiFile file)
+	{
+		return CachedValuesManager.getCachedValue(file, new CachedValueProvider<PerlLexicalBindings>()
+		{
+			@Nullable
+			@Override
+			public Result<PerlLexicalBindings> compute()
+			{
+				return Result.create(new PerlLexicalBindings(file), file);
+			}
+		});
+	}
+
+	/**
+	 * Returns most recent lexically visible declaration of the variable, from the file bindings if possible
+	 *
+	 * @param variable variable to search declaration for
+	 * @return variable declaration or null if there is no such one
+	 * @see PerlResolveUtil#getLexicalDeclaration(PerlVariable)
+	 */
+	@Nullable
+	public static PerlVariableDeclarationWrapper getLexicalDeclaration(@NotNull PerlVariable variable)
+	{
+		PsiFile file = variable.getContainingFile();
+		if (file == null)
+		{
+			return PerlResolveUtil.getLexicalDeclaration(variable);
+		}
+
+		Map<PerlVariable, PerlVariableDeclarationWrapper> lexicalDeclarations = getInstance(file).myLexicalDeclarations;
+		return lexicalDeclarations.containsKey(variable)
+				? lexicalDeclarations.get(variable)
+				: PerlResolveUtil.getLexicalDeclaration(variable);
+	}
+
+	/**
+	 * Checks if declaration is visible to some variable of the same file. False result means that declaration
+	 * may be still used from the places, bindings are not covering, like injections
+	 *
+	 * @param declarationWrapper declaration to check
+	 * @return true if declaration is used in it's file
+	 */
+	public static boolean isUsedInFile(@NotNull PerlVariableDeclarationWrapper declarationWrapper)
+	{
+		PsiFile file = declarationWrapper.getContainingFile();
+		return file != null && getInstance(file).myUsedDeclarations.contains(declarationWrapper);
+	}
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.psi.utils;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.ResolveState;
+import com.intellij.psi.scope.PsiScopeProcessor;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.perl5.lang.perl.extensions.PerlImplicitVariablesProvider;
+import com.perl5.lang.perl.psi.PerlCompositeElement;
+import com.perl5.lang.perl.psi.PerlVariable;
+import com.perl5.lang.perl.psi.PerlVariableDeclarationWrapper;
+import com.perl5.lang.perl.psi.properties.PerlLexicalScope;
+import com.perl5.lang.perl.psi.references.scopes.PerlVariableScopeProcessor;
+import gnu.trove.THashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lexical declarations of the scope, excluding ones from nested scopes, grouped by variable type and name and
+ * sorted by end offsets. Declarations visible at some offset are found with binary search instead of walking all
+ * previous siblings of the scope. Table is cached on the scope and dropped on any change of its file.
+ */
+public class PerlLexicalDeclarationsTable
+{
+	private static final PerlVariableDeclarationWrapper[] EMPTY_DECLARATIONS = new PerlVariableDeclarationWrapper[0];
+
+	private final PerlLexicalScope myScope;
+	private final Map<String, Declarations> myDeclarations = new THashMap<String, Declarations>();
+
+	private PerlLexicalDeclarationsTable(@NotNull PerlLexicalScope scope)
+	{
+		myScope = scope;
+
+		// scope children are processed the same way as PerlResolveUtil.processChildren does, in reverse order
+		DeclarationsCollector collector = new DeclarationsCollector();
+		ResolveState state = ResolveState.initial();
+		for (PsiElement run = scope.getLastChild(); run != null; run = run.getPrevSibling())
+		{
+			if (run instanceof PerlCompositeElement && !(run instanceof PerlLexicalScope))
+			{
+				run.processDeclarations(collector, state, null, scope);
+			}
+		}
+
+		Map<String, List<PerlVariableDeclarationWrapper>> groupedDeclarations = new THashMap<String, List<PerlVariableDeclarationWrapper>>();
+		List<PerlVariableDeclarationWrapper> collectedDeclarations = collector.getResult();
+		for (int i = collectedDeclarations.size() - 1; i >= 0; i--)
+		{
+			PerlVariableDeclarationWrapper declaration = collectedDeclarations.get(i);
+			PerlVariable variable = declaration.getVariable();
+			assert variable != null;
+			String key = getKey(variable.getActualType(), variable.getName());
+			List<PerlVariableDeclarationWrapper> declarations = groupedDeclarations.get(key);
+			if (declarations == null)
+			{
+				groupedDeclarations.put(key, declarations = new ArrayList<PerlVariableDeclarationWrapper>(1));
+			}
+			declarations.add(declaration);
+		}
+
+		for (Map.Entry<String, List<PerlVariableDeclarationWrapper>> entry : groupedDeclarations.entrySet())
+		{
+			myDeclarations.put(entry.getKey(), new Declarations(entry.getValue()));
+		}
+	}
+
+	/**
+	 * Returns cached declarations table of the scope
+	 *
+	 * @param scope lexical scope
+	 * @return declarations table
+	 */
+	@NotNull
+	public static PerlLexicalDeclarationsTable getInstance(@NotNull final PerlLexicalScope scope)
+	{
+		return CachedValuesManager.getCachedValue(scope, new CachedValueProvider<PerlLexicalDeclarationsTable>()
+		{
+			@Nullable
+			@Override
+			public Result<PerlLexicalDeclarationsTable> compute()
+			{
+				return Result.create(new PerlLexicalDeclarationsTable(scope), scope);
+			}
+		});
+	}
+
+	/**
+	 * Passes declarations of the variable with specified type and name, ending before the offset, to the processor,
+	 * most recent first, and implicit variables of the scope after them. Order is the same as tree walk up has.
+	 *
+	 * @param processor    processor to pass declarations to
+	 * @param variableType variable type
+	 * @param variableName variable name
+	 * @param offset       offset of the place to look from
+	 * @return false if processor stopped processing, true otherwise
+	 */
+	public boolean processDeclarations(@NotNull PsiScopeProcessor processor,
+									   @NotNull PerlVariableType variableType,
+									   @NotNull String variableName,
+									   int offset
+	)
+	{
+		ResolveState state = ResolveState.initial();
+
+		Declarations declarations = myDeclarations.get(getKey(variableType, variableName));
+		if (declarations != null)
+		{
+			for (int i = declarations.getLastIndexEndingBefore(offset); i >= 0; i--)
+			{
+				if (!processor.execute(declarations.myDeclarations[i], state))
+				{
+					return false;
+				}
+			}
+		}
+
+		if (myScope instanceof PerlImplicitVariablesProvider)
+		{
+			for (PerlVariableDeclarationWrapper wrapper : ((PerlImplicitVariablesProvider) myScope).getImplicitVariables())
+			{
+				if (!processor.execute(wrapper, state))
+				{
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	@NotNull
+	private static String getKey(@NotNull PerlVariableType variableType, @NotNull String variableName)
+	{
+		return variableType.getSigil() + variableName;
+	}
+
+	private static class Declarations
+	{
+		private final PerlVariableDeclarationWrapper[] myDeclarations;
+		private final int[] myEndOffsets;
+
+		public Declarations(@NotNull List<PerlVariableDeclarationWrapper> declarations)
+		{
+			// binary search relies on the order, stable sort keeps document order of declarations ending at the same offset
+			declarations.sort(Comparator.comparingInt(declaration -> declaration.getTextRange().getEndOffset()));
+			myDeclarations = declarations.toArray(EMPTY_DECLARATIONS);
+			myEndOffsets = new int[myDeclarations.length];
+			for (int i = 0; i < myDeclarations.length; i++)
+			{
+				myEndOffsets[i] = myDeclarations[i].getTextRange().getEndOffset();
+			}
+		}
+
+		/**
+		 * @return index of the last declaration, ending before or at the offset; -1 if there is no such one
+		 */
+		public int getLastIndexEndingBefore(int offset)
+		{
+			int low = 0;
+			int high = myEndOffsets.length - 1;
+			while (low <= high)
+			{
+				int middle = (low + high) >>> 1;
+				if (myEndOffsets[middle] <= offset)
+				{
+					low = middle + 1;
+				}
+				else
+				{
+					high = middle - 1;
+				}
+			}
+			return high;
+		}
+	}
+
+	private static class DeclarationsCollector extends PerlVariableScopeProcessor
+	{
+		private final List<PerlVariableDeclarationWrapper> myResult = new ArrayList<PerlVariableDeclarationWrapper>();
+
+		@Override
+		public boolean execute(@NotNull PsiElement element, @NotNull ResolveState state)
+		{
+			if (element instanceof PerlVariableDeclarationWrapper)
+			{
+				PerlVariable variable = ((PerlVariableDeclarationWrapper) element).getVariable();
+				if (variable != null && variable.getActualType() != null && variable.getName() != null)
+				{
+					myResult.add((PerlVariableDeclarationWrapper) element);
+				}
+			}
+			return true;
+		}
+
+		@NotNull
+		public List<PerlVariableDeclarationWrapper> getResult()
+		{
+			return myResult;
+		}
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2016 Alexandr Evstigneev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.perl5.lang.perl.psi.utils;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.source.tree.LazyParseableElement;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.perl5.lang.perl.psi.PerlNamespaceDefinition;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Text ranges of namespace definitions in the file, in document order, with links to enclosing definitions.
+ * Innermost namespace for an offset is found with binary search instead of walking element parents.
+ * Ranges are collected from AST without parsing lazy blocks, like sub bodies; offsets inside of blocks, which were not
+ * parsed, are not covered by the map. Map is cached on the file and dropped on any change of it.
+ */
+public class PerlNamespaceRanges
+{
+	private static final PerlNamespaceDefinition[] EMPTY_NAMESPACES = new PerlNamespaceDefinition[0];
+
+	private final PerlNamespaceDefinition[] myNamespaces;
+	private final int[] myStartOffsets;
+	private final int[] myEndOffsets;
+	// index of enclosing namespace definition or -1
+	private final int[] myParents;
+	// ranges of lazy blocks, not parsed when map was built, in document order
+	private final List<TextRange> myNotParsedRanges = new ArrayList<TextRange>();
+
+	private PerlNamespaceRanges(@NotNull PsiFile file)
+	{
+		List<PerlNamespaceDefinition> namespaces = new ArrayList<PerlNamespaceDefinition>();
+
+		// pre-order walk, children are pushed in reverse order to keep document order of namespaces
+		Deque<ASTNode> nodes = new ArrayDeque<ASTNode>();
+		ASTNode fileNode = file.getNode();
+		if (fileNode != null)
+		{
+			nodes.push(fileNode);
+		}
+		while (!nodes.isEmpty())
+		{
+			ASTNode node = nodes.pop();
+			if (node != fileNode && node instanceof LazyParseableElement && !((LazyParseableElement) node).isParsed())
+			{
+				myNotParsedRanges.add(node.getTextRange());
+				continue;
+			}
+
+			PsiElement psiElement = node.getPsi();
+			if (psiElement instanceof PerlNamespaceDefinition)
+			{
+				namespaces.add((PerlNamespaceDefinition) psiElement);
+			}
+
+			for (ASTNode child = node.getLastChildNode(); child != null; child = child.getTreePrev())
+			{
+				// leaves can't be namespaces, lazy elements are checked before getting children, not to parse them
+				if (child instanceof LazyParseableElement || child.getFirstChildNode() != null)
+				{
+					nodes.push(child);
+				}
+			}
+		}
+
+		myNamespaces = namespaces.toArray(EMPTY_NAMESPACES);
+		myStartOffsets = new int[myNamespaces.length];
+		myEndOffsets = new int[myNamespaces.length];
+		myParents = new int[myNamespaces.length];
+
+		for (int i = 0; i < myNamespaces.length; i++)
+		{
+			TextRange range = myNamespaces[i].getTextRange();
+			myStartOffsets[i] = range.getStartOffset();
+			myEndOffsets[i] = range.getEndOffset();
+
+			int parent = i - 1;
+			while (parent >= 0 && myEndOffsets[parent] < myEndOffsets[i])
+			{
+				parent = myParents[parent];
+			}
+			myParents[i] = parent;
+		}
+	}
+
+	@NotNull
+	public static PerlNamespaceRanges getInstance(@NotNull final PsiFile file)
+	{
+		return CachedValuesManager.getCachedValue(file, new CachedValueProvider<PerlNamespaceRanges>()
+		{
+			@Nullable
+			@Override
+			public Result<PerlNamespaceRanges> compute()
+			{
+				return Result.create(new PerlNamespaceRanges(file), file);
+			}
+		});
+	}
+
+	/**
+	 * Checks if map may be used for the offset; offsets inside of lazy blocks, which were not parsed when map was built,
+	 * are not covered
+	 *
+	 * @param offset offset in file
+	 * @return true if {@link #getNamespaceDefinition(int)} result is reliable for the offset
+	 */
+	public boolean isCovered(int offset)
+	{
+		int low = 0;
+		int high = myNotParsedRanges.size() - 1;
+		while (low <= high)
+		{
+			int middle = (low + high) >>> 1;
+			TextRange range = myNotParsedRanges.get(middle);
+			if (range.getEndOffset() <= offset)
+			{
+				low = middle + 1;
+			}
+			else if (range.getStartOffset() > offset)
+			{
+				high = middle - 1;
+			}
+			else
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns innermost namespace definition, containing offset
+	 *
+	 * @param offset offset in file
+	 * @return namespace definition or null if offset is outside of any namespace
+	 */
+	@Nullable
+	public PerlNamespaceDefinition getNamespaceDefinition(int offset)
+	{
+		int low = 0;
+		int high = myStartOffsets.length - 1;
+		while (low <= high)
+		{
+			int middle = (low + high) >>> 1;
+			if (myStartOffsets[middle] <= offset)
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle - 1;
+			}
+		}
+
+		int index = high;
+		while (index >= 0 && myEndOffsets[index] <= offset)
+		{
+			index = myParents[index];
+		}
+		return index < 0 ? null : myNamespaces[index];
+	}
+}
@@ -20,6 +20,7 @@ import com.intellij.openapi.util.Pair;
 import com.intellij.psi.*;
 import com.intellij.psi.scope.PsiScopeProcessor;
 import com.intellij.util.Processor;
+import com.perl5.lang.perl.PerlLanguage;
 import com.perl5.lang.perl.extensions.PerlImplicitVariablesProvider;
 import com.perl5.lang.perl.psi.PerlCompositeElement;
 import com.perl5.lang.perl.psi.PerlVariable;
@@ -36,8 +37,11 @@ public class PerlResolveUtil
 {
 	public static boolean treeWalkUp(@Nullable PsiElement place, @NotNull PsiScopeProcessor processor)
 	{
-		PsiElement lastParent = null;
-		PsiElement run = place;
+		return treeWalkUp(place, processor, place, null);
+	}
+
+	private static boolean treeWalkUp(@Nullable PsiElement place, @NotNull PsiScopeProcessor processor, @Nullable PsiElement run, @Nullable PsiElement lastParent)
+	{
 		ResolveState state = ResolveState.initial();
 		while (run != null)
 		{
@@ -100,7 +104,37 @@ public class PerlResolveUtil
 			return null;
 		}
 		PerlVariableDeclarationSearcher variableProcessor = new PerlVariableDeclarationSearcher(variable);
-		PerlResolveUtil.treeWalkUp(variable, variableProcessor);
+		PerlVariableType variableType = variable.getActualType();
+		String variableName = variable.getName();
+		PsiFile file = variable.getContainingFile();
+
+		if (variableType == null || variableName == null || file == null || file.getLanguage() != PerlLanguage.INSTANCE)
+		{
+			// templating languages may have their own declarations processing
+			PerlResolveUtil.treeWalkUp(variable, variableProcessor);
+			return variableProcessor.getResult();
+		}
+
+		int offset = variable.getTextRange().getStartOffset();
+		PsiElement lastParent = variable;
+		PsiElement run = variable.getContext();
+		while (run != null && !(lastParent instanceof PsiFile))
+		{
+			if (run instanceof PerlLexicalScope &&
+					!PerlLexicalDeclarationsTable.getInstance((PerlLexicalScope) run).processDeclarations(variableProcessor, variableType, variableName, offset)
+					)
+			{
+				return variableProcessor.getResult();
+			}
+			lastParent = run;
+			run = run.getContext();
+		}
+
+		// file context, e.g. injection host
+		if (run != null)
+		{
+			treeWalkUp(variable, variableProcessor, run, lastParent);
+		}
 		return variableProcessor.getResult();
 	}
 
@@ -50,17 +50,18 @@ public class PerlSubArgument
 
 	private static PerlSubArgument deserialize(@NotNull StubInputStream dataStream) throws IOException
 	{
-		PerlVariableType argumentType = PerlVariableType.valueOf(dataStream.readName().toString());
+		int flags = dataStream.readByte();
+		PerlVariableType argumentType = PerlVariableType.values()[flags >> 1];
 		String argumentName = dataStream.readName().toString();
 		String variableClass = dataStream.readName().toString();
-		boolean isOptional = dataStream.readBoolean();
+		boolean isOptional = (flags & 1) != 0;
 		return new PerlSubArgument(argumentType, argumentName, variableClass, isOptional);
 	}
 
 	@NotNull
 	public static List<PerlSubArgument> deserializeList(@NotNull StubInputStream dataStream) throws IOException
 	{
-		int argumentsNumber = dataStream.readInt();
+		int argumentsNumber = dataStream.readVarInt();
 
 		if (argumentsNumber > 0)
 		{
@@ -101,7 +102,7 @@ public class PerlSubArgument
 
 	public static void serializeList(@NotNull StubOutputStream dataStream, List<PerlSubArgument> arguments) throws IOException
 	{
-		dataStream.writeInt(arguments.size());
+		dataStream.writeVarInt(arguments.size());
 		for (PerlSubArgument argument : arguments)
 		{
 			argument.serialize(dataStream);
@@ -151,10 +152,10 @@ public class PerlSubArgument
 
 	private void serialize(@NotNull StubOutputStream dataStream) throws IOException
 	{
-		dataStream.writeName(argumentType.toString());
+		// type and optional flag are packed into one byte
+		dataStream.writeByte(argumentType.ordinal() << 1 | (isOptional ? 1 : 0));
 		dataStream.writeName(argumentName);
 		dataStream.writeName(variableClass);
-		dataStream.writeBoolean(isOptional);
 	}
 
 	public boolean isSelf(Project project)
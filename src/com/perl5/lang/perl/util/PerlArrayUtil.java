@@ -23,13 +23,12 @@ import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.stubs.StubIndex;
 import com.intellij.util.Processor;
 import com.perl5.lang.perl.extensions.packageprocessor.PerlExportDescriptor;
+import com.perl5.lang.perl.extensions.packageprocessor.PerlImportsTable;
 import com.perl5.lang.perl.idea.stubs.variables.PerlVariablesStubIndex;
 import com.perl5.lang.perl.lexer.PerlElementTypes;
 import com.perl5.lang.perl.psi.PerlVariableDeclarationWrapper;
 import com.perl5.lang.perl.psi.PsiPerlCommaSequenceExpr;
 import com.perl5.lang.perl.psi.PsiPerlParenthesisedExpr;
-import com.perl5.lang.perl.util.processors.PerlArrayImportsCollector;
-import com.perl5.lang.perl.util.processors.PerlImportsCollector;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -117,9 +116,7 @@ public class PerlArrayUtil implements PerlElementTypes
 	@NotNull
 	public static List<PerlExportDescriptor> getImportedArraysDescriptors(@NotNull PsiElement rootElement)
 	{
-		PerlImportsCollector collector = new PerlArrayImportsCollector();
-		PerlUtil.processImportedEntities(rootElement, collector);
-		return collector.getResult();
+		return PerlImportsTable.getImportsTable(rootElement).getArrays();
 	}
 
 	/**
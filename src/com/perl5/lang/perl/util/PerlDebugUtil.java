@@ -27,9 +27,10 @@ import com.intellij.xdebugger.XDebuggerManager;
 import com.intellij.xdebugger.breakpoints.XLineBreakpoint;
 import com.intellij.xdebugger.frame.XCompositeNode;
 import com.intellij.xdebugger.frame.XValueChildrenList;
-import com.perl5.lang.perl.idea.run.debugger.PerlDebugThread;
 import com.perl5.lang.perl.idea.run.debugger.PerlRemoteFileSystem;
 import com.perl5.lang.perl.idea.run.debugger.PerlStackFrame;
+import com.perl5.lang.perl.idea.run.debugger.PerlSuspendContext;
+import com.perl5.lang.perl.idea.run.debugger.PerlValuesCache;
 import com.perl5.lang.perl.idea.run.debugger.PerlXNamedValue;
 import com.perl5.lang.perl.idea.run.debugger.breakpoints.PerlLineBreakpointProperties;
 import com.perl5.lang.perl.idea.run.debugger.breakpoints.PerlLineBreakpointType;
@@ -89,12 +90,31 @@ public class PerlDebugUtil
 		return result[0];
 	}
 
-	public static void requestAndComputeChildren(@NotNull final XCompositeNode node, final PerlStackFrame perlStackFrame, final int[] offset, final int size, String key)
+	/**
+	 * Computes next page of value children. Pages fetched before in the same suspend context are taken from cache
+	 *
+	 * @param node           node to add children to
+	 * @param perlStackFrame stack frame of the value
+	 * @param offset         number of children, added to the node already; adjusted after adding
+	 * @param size           total number of children
+	 * @param key            value key to request children by
+	 */
+	public static void requestAndComputeChildren(@NotNull final XCompositeNode node, final PerlStackFrame perlStackFrame, final int[] offset, final int size, final String key)
 	{
-		PerlDebugThread thread = perlStackFrame.getPerlExecutionStack().getSuspendContext().getDebugThread();
+		PerlSuspendContext suspendContext = perlStackFrame.getPerlExecutionStack().getSuspendContext();
+		final PerlValuesCache valuesCache = suspendContext.getValuesCache();
 
 		final int frameSize = XCompositeNode.MAX_CHILDREN_TO_SHOW;
-		thread.sendCommandAndGetResponse("getchildren", new PerlValueRequestDescriptor(offset[0], frameSize, key), new PerlDebuggingTransactionHandler()
+		final int frameOffset = offset[0];
+
+		PerlValueDescriptor[] cachedDescriptors = valuesCache.getPage(key, frameOffset, frameSize);
+		if (cachedDescriptors != null)
+		{
+			addChildren(node, perlStackFrame, offset, size, cachedDescriptors);
+			return;
+		}
+
+		suspendContext.getDebugThread().sendCommandAndGetResponse("getchildren", new PerlValueRequestDescriptor(frameOffset, frameSize, key), new PerlDebuggingTransactionHandler()
 		{
 			@Override
 			public void run(JsonObject jsonObject, JsonDeserializationContext jsonDeserializationContext)
@@ -103,20 +123,26 @@ public class PerlDebugUtil
 						jsonObject.getAsJsonArray("data"), PerlValueDescriptor[].class
 				);
 
-				XValueChildrenList list = new XValueChildrenList();
-				for (PerlValueDescriptor descriptor : descriptors)
-				{
-					list.add(new PerlXNamedValue(descriptor, perlStackFrame));
-
-					offset[0]++;
-				}
-				boolean isLast = offset[0] >= size;
-				node.addChildren(list, isLast);
-				if (!isLast)
-				{
-					node.tooManyChildren(size - offset[0]);
-				}
+				valuesCache.putPage(key, frameOffset, frameSize, descriptors);
+				addChildren(node, perlStackFrame, offset, size, descriptors);
 			}
 		});
 	}
+
+	private static void addChildren(@NotNull XCompositeNode node, PerlStackFrame perlStackFrame, int[] offset, int size, @NotNull PerlValueDescriptor[] descriptors)
+	{
+		XValueChildrenList list = new XValueChildrenList();
+		for (PerlValueDescriptor descriptor : descriptors)
+		{
+			list.add(new PerlXNamedValue(descriptor, perlStackFrame));
+
+			offset[0]++;
+		}
+		boolean isLast = offset[0] >= size;
+		node.addChildren(list, isLast);
+		if (!isLast)
+		{
+			node.tooManyChildren(size - offset[0]);
+		}
+	}
 }
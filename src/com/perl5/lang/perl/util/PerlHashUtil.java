@@ -22,11 +22,10 @@ import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.stubs.StubIndex;
 import com.intellij.util.Processor;
 import com.perl5.lang.perl.extensions.packageprocessor.PerlExportDescriptor;
+import com.perl5.lang.perl.extensions.packageprocessor.PerlImportsTable;
 import com.perl5.lang.perl.idea.stubs.variables.PerlVariablesStubIndex;
 import com.perl5.lang.perl.lexer.PerlElementTypes;
 import com.perl5.lang.perl.psi.PerlVariableDeclarationWrapper;
-import com.perl5.lang.perl.util.processors.PerlHashImportsCollector;
-import com.perl5.lang.perl.util.processors.PerlImportsCollector;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
@@ -116,9 +115,7 @@ public class PerlHashUtil implements PerlElementTypes
 	@NotNull
 	public static List<PerlExportDescriptor> getImportedHashesDescriptors(@NotNull PsiElement rootElement)
 	{
-		PerlImportsCollector collector = new PerlHashImportsCollector();
-		PerlUtil.processImportedEntities(rootElement, collector);
-		return collector.getResult();
+		return PerlImportsTable.getImportsTable(rootElement).getHashes();
 	}
 
 
@@ -24,31 +24,40 @@ import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.PsiReference;
+import com.intellij.psi.StubBasedPsiElement;
 import com.intellij.psi.search.FileTypeIndex;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.impl.light.LightElement;
+import com.intellij.psi.impl.source.PsiFileImpl;
+import com.intellij.psi.stubs.StubElement;
 import com.intellij.psi.stubs.StubIndex;
 import com.intellij.psi.util.CachedValueProvider;
 import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.Processor;
+import com.intellij.util.containers.ConcurrentFactoryMap;
 import com.perl5.lang.perl.PerlScopes;
 import com.perl5.lang.perl.extensions.packageprocessor.PerlLibProvider;
 import com.perl5.lang.perl.extensions.packageprocessor.PerlPackageProcessor;
 import com.perl5.lang.perl.fileTypes.PerlFileTypePackage;
 import com.perl5.lang.perl.idea.manipulators.PerlNamespaceElementManipulator;
+import com.perl5.lang.perl.idea.project.PerlPackageFilesCache;
 import com.perl5.lang.perl.idea.refactoring.rename.RenameRefactoringQueue;
 import com.perl5.lang.perl.idea.stubs.PerlSubBaseStub;
+import com.perl5.lang.perl.idea.stubs.imports.PerlUseStatementStub;
 import com.perl5.lang.perl.idea.stubs.namespaces.PerlNamespaceDefinitionStubIndex;
 import com.perl5.lang.perl.idea.stubs.namespaces.PerlParentNamespaceDefinitionStubIndex;
 import com.perl5.lang.perl.lexer.PerlElementTypes;
 import com.perl5.lang.perl.psi.*;
 import com.perl5.lang.perl.psi.impl.PerlFileImpl;
 import com.perl5.lang.perl.psi.utils.PerlNamespaceAnnotations;
+import com.perl5.lang.perl.psi.utils.PerlNamespaceRanges;
 import com.perl5.lang.perl.psi.utils.PerlPsiUtil;
 import gnu.trove.THashSet;
 import org.apache.commons.lang.StringUtils;
@@ -210,6 +219,72 @@ public class PerlPackageUtil implements PerlElementTypes, PerlBuiltInNamespaces
 		return newName;
 	}
 
+	/**
+	 * Checks that canonical form of the buffer range equals to the canonical name, without building the string.
+	 * Range is canonicalized the same way as {@link #getCanonicalName(String)} does
+	 *
+	 * @param buffer        buffer with name
+	 * @param start         name start offset
+	 * @param end           name end offset
+	 * @param canonicalName canonical name to compare with
+	 * @return true if names are equal
+	 */
+	public static boolean isCanonicalNameEqual(@NotNull CharSequence buffer, int start, int end, @NotNull String canonicalName)
+	{
+		// trailing separator
+		if (end - start >= 2 && buffer.charAt(end - 1) == ':' && buffer.charAt(end - 2) == ':')
+		{
+			end -= 2;
+		}
+		else if (end > start && buffer.charAt(end - 1) == PACKAGE_SEPARATOR_LEGACY)
+		{
+			end--;
+		}
+
+		int offset = 0;
+		int canonicalLength = canonicalName.length();
+
+		// implicit main
+		if (start == end || buffer.charAt(start) == PACKAGE_SEPARATOR_LEGACY ||
+				end - start >= 2 && buffer.charAt(start) == ':' && buffer.charAt(start + 1) == ':')
+		{
+			if (!canonicalName.startsWith(MAIN_PACKAGE))
+			{
+				return false;
+			}
+			offset = MAIN_PACKAGE.length();
+		}
+
+		int i = start;
+		while (i < end)
+		{
+			char currentChar = buffer.charAt(i);
+			int separatorLength = currentChar == PACKAGE_SEPARATOR_LEGACY ? 1 :
+					currentChar == ':' && i + 1 < end && buffer.charAt(i + 1) == ':' ? 2 : 0;
+
+			if (separatorLength > 0)
+			{
+				if (!canonicalName.startsWith(PACKAGE_SEPARATOR, offset))
+				{
+					return false;
+				}
+				offset += PACKAGE_SEPARATOR.length();
+				i += separatorLength;
+			}
+			else
+			{
+				if (offset >= canonicalLength || canonicalName.charAt(offset) != currentChar)
+				{
+					return false;
+				}
+				offset++;
+				i++;
+			}
+		}
+
+		return offset == canonicalLength;
+	}
+
 	/**
 	 * Searching of namespace element is in. If no explicit namespaces defined, main is returned
 	 *
@@ -219,7 +294,7 @@ public class PerlPackageUtil implements PerlElementTypes, PerlBuiltInNamespaces
 	@Nullable
 	public static String getContextPackageName(PsiElement element)
 	{
-		PerlNamespaceDefinition namespaceDefinition = getContainingNamespace(element);
+		PerlNamespaceDefinition namespaceDefinition = getContainingNamespaceFast(element);
 
 		if (namespaceDefinition != null && namespaceDefinition.getPackageName() != null) // checking that definition is valid and got namespace
 		{
@@ -257,7 +332,20 @@ public class PerlPackageUtil implements PerlElementTypes, PerlBuiltInNamespaces
 			return null;
 		}
 
-		PerlNamespaceContainer namespaceContainer = PsiTreeUtil.getParentOfType(element, PerlNamespaceContainer.class);
+		PerlNamespaceContainer namespaceContainer;
+		if (isRangesLookupApplicable(element))
+		{
+			namespaceContainer = getContainingNamespaceFast(element);
+			if (namespaceContainer == null)
+			{
+				PsiFile file = element.getContainingFile();
+				namespaceContainer = file instanceof PerlNamespaceContainer ? (PerlNamespaceContainer) file : null;
+			}
+		}
+		else
+		{
+			namespaceContainer = PsiTreeUtil.getParentOfType(element, PerlNamespaceContainer.class);
+		}
 
 		if (namespaceContainer instanceof PerlFileImpl)
 		{
@@ -276,6 +364,40 @@ public class PerlPackageUtil implements PerlElementTypes, PerlBuiltInNamespaces
 		return PsiTreeUtil.getStubOrPsiParentOfType(element, PerlNamespaceDefinition.class);
 	}
 
+	/**
+	 * Same as {@link #getContainingNamespace(PsiElement)}, but uses file namespace ranges instead of walking parents
+	 * when element is backed by AST
+	 */
+	@Nullable
+	private static PerlNamespaceDefinition getContainingNamespaceFast(@NotNull PsiElement element)
+	{
+		if (!isRangesLookupApplicable(element))
+		{
+			return getContainingNamespace(element);
+		}
+		PerlNamespaceRanges namespaceRanges = PerlNamespaceRanges.getInstance(element.getContainingFile());
+		int offset = element.getTextRange().getStartOffset();
+		return namespaceRanges.isCovered(offset) ? namespaceRanges.getNamespaceDefinition(offset) : getContainingNamespace(element);
+	}
+
+	/**
+	 * Ranges lookup works for non-empty AST elements of perl files; namespace definitions are excluded, because
+	 * lookup by their own offset would return themselves instead of enclosing namespace
+	 */
+	private static boolean isRangesLookupApplicable(@NotNull PsiElement element)
+	{
+		if (element instanceof PsiFile ||
+				element instanceof PerlNamespaceDefinition ||
+				element instanceof LightElement ||
+				element instanceof StubBasedPsiElement && ((StubBasedPsiElement) element).getStub() != null ||
+				!(element.getContainingFile() instanceof PerlFileImpl)
+				)
+		{
+			return false;
+		}
+		return element.getTextLength() > 0;
+	}
+
 	@NotNull
 	public static List<PerlNamespaceDefinition> collectNamespaceDefinitions(@NotNull Project project, @NotNull List<String> packageNames)
 	{
@@ -526,7 +648,6 @@ public class PerlPackageUtil implements PerlElementTypes, PerlBuiltInNamespaces
 
 	/**
 	 * Returns list of Package names available as pm files for specific psi element
-	 * todo we could cache this with invalidating on file event
 	 *
 	 * @param element base PsiElement
 	 * @return list of distinct strings
@@ -551,33 +672,25 @@ public class PerlPackageUtil implements PerlElementTypes, PerlBuiltInNamespaces
 
 	public static void processPackageFilesForPsiElement(PsiElement element, final Processor<String> processor)
 	{
-		processFilesForPsiElement(
-				element,
-				new ClassRootVirtualFileProcessor()
-				{
-					@Override
-					public boolean process(VirtualFile file, VirtualFile classRoot)
-					{
-						String relativePath = VfsUtil.getRelativePath(file, classRoot);
-						String packageName = PerlPackageUtil.getPackageNameByPath(relativePath);
-						return processor.process(packageName);
-					}
-				},
-				PerlFileTypePackage.INSTANCE)
-		;
+		if (element != null)
+		{
+			PerlPackageFilesCache.getInstance(element.getProject()).processPackageNames(processor);
+		}
 	}
 
 	public static void processFilesForPsiElement(PsiElement element, ClassRootVirtualFileProcessor processor, FileType fileType)
 	{
 		if (element != null)
 		{
-			VirtualFile[] classRoots = ProjectRootManager.getInstance(element.getProject()).orderEntries().getClassesRoots();
+			Set<VirtualFile> classRoots = new THashSet<VirtualFile>(
+					Arrays.asList(ProjectRootManager.getInstance(element.getProject()).orderEntries().getClassesRoots())
+			);
 
 			for (VirtualFile file : FileTypeIndex.getFiles(fileType, PerlScopes.getProjectAndLibrariesScope(element.getProject())))
 			{
-				for (VirtualFile classRoot : classRoots)
+				for (VirtualFile classRoot = file.getParent(); classRoot != null; classRoot = classRoot.getParent())
 				{
-					if (VfsUtil.isAncestor(classRoot, file, true))
+					if (classRoots.contains(classRoot))
 					{
 						if (!processor.process(file, classRoot))
 						{
@@ -719,18 +832,7 @@ public class PerlPackageUtil implements PerlElementTypes, PerlBuiltInNamespaces
 			return null;
 		}
 
-		String packagePath = getPackagePathByName(packageName);
-		VirtualFile[] classRoots = ProjectRootManager.getInstance(project).orderEntries().getClassesRoots();
-
-		for (VirtualFile classRoot : classRoots)
-		{
-			VirtualFile targetFile = classRoot.findFileByRelativePath(packagePath);
-			if (targetFile != null)
-			{
-				return targetFile;
-			}
-		}
-		return null;
+		return PerlPackageFilesCache.getInstance(project).getPackageFile(getPackagePathByName(packageName));
 	}
 
 	/**
@@ -786,7 +888,7 @@ public class PerlPackageUtil implements PerlElementTypes, PerlBuiltInNamespaces
 	}
 
 	/**
-	 * Resolving relative path to a virtual file
+	 * Resolving relative path to a virtual file. Results are memoized per file and invalidated on file, roots or vfs changes
 	 *
 	 * @param psiFile      base file
 	 * @param relativePath relative path
@@ -795,26 +897,100 @@ public class PerlPackageUtil implements PerlElementTypes, PerlBuiltInNamespaces
 	@Nullable
 	public static VirtualFile resolveRelativePathToVirtualFile(@NotNull PsiFile psiFile, String relativePath)
 	{
-		if (relativePath != null)
+		if (relativePath == null)
 		{
-			for (VirtualFile classRoot : getLibPathsForPsiFile(psiFile))
+			return null;
+		}
+
+		Map<String, VirtualFile> resolvedFilesMap = getResolvedFilesMap(psiFile);
+		VirtualFile targetFile = resolvedFilesMap.get(relativePath);
+		if (targetFile != null && !targetFile.isValid())
+		{
+			resolvedFilesMap.remove(relativePath);
+			targetFile = resolvedFilesMap.get(relativePath);
+		}
+		return targetFile;
+	}
+
+	/**
+	 * Returns lazily filled map of relative path to resolved virtual file for psiFile
+	 *
+	 * @param psiFile base file
+	 * @return cached map
+	 */
+	@NotNull
+	private static Map<String, VirtualFile> getResolvedFilesMap(@NotNull final PsiFile psiFile)
+	{
+		return CachedValuesManager.getCachedValue(psiFile, new CachedValueProvider<Map<String, VirtualFile>>()
+		{
+			@Nullable
+			@Override
+			public Result<Map<String, VirtualFile>> compute()
 			{
-				if (classRoot != null)
+				Map<String, VirtualFile> result = new ConcurrentFactoryMap<String, VirtualFile>()
 				{
-					VirtualFile targetFile = classRoot.findFileByRelativePath(relativePath);
-					if (targetFile != null)
+					@Nullable
+					@Override
+					protected VirtualFile create(String relativePath)
 					{
-						String foundRelativePath = VfsUtil.getRelativePath(targetFile, classRoot);
+						return doResolveRelativePathToVirtualFile(psiFile, relativePath);
+					}
+				};
+				return Result.create(result, psiFile, ProjectRootManager.getInstance(psiFile.getProject()), VirtualFileManager.getInstance());
+			}
+		});
+	}
 
-						if (StringUtil.isNotEmpty(foundRelativePath) && StringUtil.equals(foundRelativePath, relativePath))
-						{
-							return targetFile;
-						}
+	@Nullable
+	private static VirtualFile doResolveRelativePathToVirtualFile(@NotNull PsiFile psiFile, @NotNull String relativePath)
+	{
+		// use lib dirs
+		VirtualFile targetFile = findFileByRelativePath(getUseLibDirs(psiFile), relativePath);
+		if (targetFile != null)
+		{
+			return targetFile;
+		}
+
+		// classpath
+		if (relativePath.endsWith(".pm"))
+		{
+			targetFile = PerlPackageFilesCache.getInstance(psiFile.getProject()).getPackageFile(relativePath);
+		}
+		else
+		{
+			targetFile = findFileByRelativePath(
+					Arrays.asList(ProjectRootManager.getInstance(psiFile.getProject()).orderEntries().getClassesRoots()),
+					relativePath
+			);
+		}
+		if (targetFile != null)
+		{
+			return targetFile;
+		}
+
+		// current dir
+		return findFileByRelativePath(Collections.singletonList(getCurrentDir(psiFile)), relativePath);
+	}
+
+	@Nullable
+	private static VirtualFile findFileByRelativePath(@NotNull List<VirtualFile> roots, @NotNull String relativePath)
+	{
+		for (VirtualFile root : roots)
+		{
+			if (root != null && root.isValid())
+			{
+				VirtualFile targetFile = root.findFileByRelativePath(relativePath);
+				if (targetFile != null)
+				{
+					String foundRelativePath = VfsUtil.getRelativePath(targetFile, root);
+
+					if (StringUtil.isNotEmpty(foundRelativePath) && StringUtil.equals(foundRelativePath, relativePath))
+					{
+						return targetFile;
 					}
 				}
 			}
 		}
-
 		return null;
 	}
 
@@ -827,32 +1003,103 @@ public class PerlPackageUtil implements PerlElementTypes, PerlBuiltInNamespaces
 	@NotNull
 	public static List<VirtualFile> getLibPathsForPsiFile(@NotNull PsiFile psiFile)
 	{
-		List<VirtualFile> result = new ArrayList<VirtualFile>();
-
-		// libdirs providers fixme we need to use stubs or psi here
-		for (PerlUseStatement useStatement : PsiTreeUtil.findChildrenOfType(psiFile, PerlUseStatement.class))
-		{
-			PerlPackageProcessor packageProcessor = useStatement.getPackageProcessor();
-			if (packageProcessor instanceof PerlLibProvider)
-			{
-				((PerlLibProvider) packageProcessor).addLibDirs(useStatement, result);
-			}
-		}
+		List<VirtualFile> result = new ArrayList<VirtualFile>(getUseLibDirs(psiFile));
 
 		// classpath
 		result.addAll(Arrays.asList(ProjectRootManager.getInstance(psiFile.getProject()).orderEntries().getClassesRoots()));
 
 		// current dir
+		VirtualFile currentDir = getCurrentDir(psiFile);
+		if (currentDir != null)
+		{
+			result.add(currentDir);
+		}
+
+		return result;
+	}
+
+	@Nullable
+	private static VirtualFile getCurrentDir(@NotNull PsiFile psiFile)
+	{
 		if (psiFile instanceof PerlFileImpl)
 		{
 			VirtualFile virtualFile = psiFile.getVirtualFile();
 			if (virtualFile != null)
 			{
-				result.add(virtualFile.getParent());
+				return virtualFile.getParent();
 			}
 		}
+		return null;
+	}
 
-		return result;
+	/**
+	 * Returns lib directories added by lib providers, like use lib, cached on the file. Directories are found with
+	 * LocalFileSystem, so cache is invalidated on vfs changes too
+	 *
+	 * @param psiFile psiFile to resolve from
+	 * @return unmodifiable list of lib dirs
+	 */
+	@NotNull
+	private static List<VirtualFile> getUseLibDirs(@NotNull final PsiFile psiFile)
+	{
+		return CachedValuesManager.getCachedValue(psiFile, new CachedValueProvider<List<VirtualFile>>()
+		{
+			@Nullable
+			@Override
+			public Result<List<VirtualFile>> compute()
+			{
+				List<VirtualFile> result = new ArrayList<VirtualFile>();
+				for (PerlUseStatement useStatement : getUseStatements(psiFile))
+				{
+					PerlPackageProcessor packageProcessor = useStatement.getPackageProcessor();
+					if (packageProcessor instanceof PerlLibProvider)
+					{
+						((PerlLibProvider) packageProcessor).addLibDirs(useStatement, result);
+					}
+				}
+				return Result.create(Collections.unmodifiableList(result), psiFile, VirtualFileManager.getInstance());
+			}
+		});
+	}
+
+	/**
+	 * Collects use statements of the file, from stubs if file has no AST loaded, from psi otherwise
+	 *
+	 * @param psiFile file to collect from
+	 * @return list of use statements in document order
+	 */
+	@NotNull
+	private static List<PerlUseStatement> getUseStatements(@NotNull PsiFile psiFile)
+	{
+		if (psiFile instanceof PsiFileImpl)
+		{
+			StubElement fileStub = ((PsiFileImpl) psiFile).getStub();
+			if (fileStub != null)
+			{
+				List<PerlUseStatement> result = new ArrayList<PerlUseStatement>();
+				collectUseStatementsFromStub(fileStub, result);
+				return result;
+			}
+		}
+		return new ArrayList<PerlUseStatement>(PsiTreeUtil.findChildrenOfType(psiFile, PerlUseStatement.class));
+	}
+
+	private static void collectUseStatementsFromStub(@NotNull StubElement currentStub, @NotNull List<PerlUseStatement> result)
+	{
+		if (currentStub instanceof PerlUseStatementStub)
+		{
+			PsiElement psiElement = currentStub.getPsi();
+			if (psiElement instanceof PerlUseStatement)
+			{
+				result.add((PerlUseStatement) psiElement);
+			}
+		}
+
+		for (Object childStub : currentStub.getChildrenStubs())
+		{
+			assert childStub instanceof StubElement : childStub.getClass();
+			collectUseStatementsFromStub((StubElement) childStub, result);
+		}
 	}
 
 	/**
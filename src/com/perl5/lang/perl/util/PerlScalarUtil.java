@@ -23,11 +23,10 @@ import com.intellij.psi.stubs.StubIndex;
 import com.intellij.psi.stubs.StubIndexKey;
 import com.intellij.util.Processor;
 import com.perl5.lang.perl.extensions.packageprocessor.PerlExportDescriptor;
+import com.perl5.lang.perl.extensions.packageprocessor.PerlImportsTable;
 import com.perl5.lang.perl.idea.stubs.variables.PerlVariablesStubIndex;
 import com.perl5.lang.perl.lexer.PerlElementTypes;
 import com.perl5.lang.perl.psi.PerlVariableDeclarationWrapper;
-import com.perl5.lang.perl.util.processors.PerlImportsCollector;
-import com.perl5.lang.perl.util.processors.PerlScalarImportsCollector;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
@@ -145,9 +144,7 @@ public class PerlScalarUtil implements PerlElementTypes, PerlBuiltInScalars
 	@NotNull
 	public static List<PerlExportDescriptor> getImportedScalarsDescritptors(@NotNull PsiElement rootElement)
 	{
-		PerlImportsCollector collector = new PerlScalarImportsCollector();
-		PerlUtil.processImportedEntities(rootElement, collector);
-		return collector.getResult();
+		return PerlImportsTable.getImportsTable(rootElement).getScalars();
 	}
 
 }
@@ -26,6 +26,9 @@ import com.intellij.psi.stubs.StubIndex;
 import com.intellij.util.Processor;
 import com.perl5.lang.perl.PerlScopes;
 import com.perl5.lang.perl.extensions.packageprocessor.PerlExportDescriptor;
+import com.perl5.lang.perl.extensions.packageprocessor.PerlImportsTable;
+import com.perl5.lang.perl.idea.project.PerlMethodReturnTypesCache;
+import com.perl5.lang.perl.idea.stubs.PerlPackageMembersStubIndex;
 import com.perl5.lang.perl.idea.stubs.subsdeclarations.PerlSubDeclarationStubIndex;
 import com.perl5.lang.perl.idea.stubs.subsdefinitions.PerlSubDefinitionsStubIndex;
 import com.perl5.lang.perl.lexer.PerlElementTypes;
@@ -33,8 +36,6 @@ import com.perl5.lang.perl.psi.*;
 import com.perl5.lang.perl.psi.mro.PerlMro;
 import com.perl5.lang.perl.psi.references.PerlSubReference;
 import com.perl5.lang.perl.psi.utils.PerlSubArgument;
-import com.perl5.lang.perl.util.processors.PerlImportsCollector;
-import com.perl5.lang.perl.util.processors.PerlSubImportsCollector;
 import gnu.trove.THashSet;
 import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
@@ -153,6 +154,26 @@ public class PerlSubUtil implements PerlElementTypes, PerlBuiltInSubs
 		return StubIndex.getElements(PerlSubDeclarationStubIndex.KEY, canonicalName, project, scope, PsiPerlSubDeclaration.class);
 	}
 
+	/**
+	 * Processes sub definitions, sub declarations and globs of the package
+	 *
+	 * @param project     project to search in
+	 * @param packageName canonical package name
+	 * @param processor   members processor
+	 * @return false if processing was stopped by processor
+	 */
+	public static boolean processPackageMembers(@NotNull Project project, @NotNull String packageName, @NotNull Processor<PsiElement> processor)
+	{
+		return StubIndex.getInstance().processElements(
+				PerlPackageMembersStubIndex.KEY,
+				packageName,
+				project,
+				PerlScopes.getProjectAndLibrariesScope(project),
+				PsiElement.class,
+				processor
+		);
+	}
+
 	/**
 	 * Returns list of declared subs names
 	 *
@@ -203,6 +224,20 @@ public class PerlSubUtil implements PerlElementTypes, PerlBuiltInSubs
 			return methodElement.getPackageName();
 		}
 
+		if (methodElement.isObjectMethod())
+		{
+			String methodName = subNameElement.getName();
+			if (methodName.isEmpty())
+			{
+				return null;
+			}
+
+			PerlNamespaceElement namespaceElement = methodElement.getNamespaceElement();
+			boolean isSuper = namespaceElement != null && namespaceElement.isSUPER();
+			String packageName = isSuper ? PerlPackageUtil.getContextPackageName(subNameElement) : subNameElement.getPackageName();
+			return PerlMethodReturnTypesCache.getInstance(methodElement.getProject()).getReturnType(packageName, methodName, isSuper);
+		}
+
 		PsiReference reference = subNameElement.getReference();
 
 		if (reference instanceof PerlSubReference)
@@ -233,9 +268,7 @@ public class PerlSubUtil implements PerlElementTypes, PerlBuiltInSubs
 	@NotNull
 	public static List<PerlExportDescriptor> getImportedSubsDescriptors(@NotNull PsiElement rootElement)
 	{
-		PerlImportsCollector collector = new PerlSubImportsCollector();
-		PerlUtil.processImportedEntities(rootElement, collector);
-		return collector.getResult();
+		return PerlImportsTable.getImportsTable(rootElement).getSubs();
 	}
 
 	/**
@@ -1,54 +0,0 @@
-/*
- * Copyright 2015 Alexandr Evstigneev
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- * http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.perl5.lang.perl.util.processors;
-
-import com.perl5.lang.perl.extensions.packageprocessor.PerlExportDescriptor;
-import org.jetbrains.annotations.NotNull;
-
-import java.util.ArrayList;
-import java.util.List;
-
-/**
- * Created by hurricup on 03.09.2015.
- */
-public abstract class PerlImportsCollector extends PerlNamespaceEntityProcessor<PerlExportDescriptor>
-{
-	final protected List<PerlExportDescriptor> myResult;
-
-	public PerlImportsCollector()
-	{
-		myResult = new ArrayList<PerlExportDescriptor>();
-	}
-
-	protected abstract boolean meetsCondition(@NotNull PerlExportDescriptor descriptor);
-
-	@Override
-	public boolean process(String namespaceName, PerlExportDescriptor entity)
-	{
-		if (entity != null && meetsCondition(entity) && !myResult.contains(entity))
-		{
-			myResult.add(entity);
-		}
-		return true;
-	}
-
-	@NotNull
-	public List<PerlExportDescriptor> getResult()
-	{
-		return myResult;
-	}
-}
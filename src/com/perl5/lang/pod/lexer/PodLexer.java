@@ -69,7 +69,7 @@ public class PodLexer extends PodLexerGenerated
 	@Override
 	public int yystate()
 	{
-		return preparsedTokensList.isEmpty() && myOpenedAngles.isEmpty() ? super.yystate() : LEX_PREPARSED_ITEMS;
+		return preparsedTokens.isEmpty() && myOpenedAngles.isEmpty() ? super.yystate() : LEX_PREPARSED_ITEMS;
 	}
 
 	@Override
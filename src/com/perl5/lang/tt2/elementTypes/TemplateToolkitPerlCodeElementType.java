@@ -17,25 +17,29 @@
 package com.perl5.lang.tt2.elementTypes;
 
 import com.intellij.lang.ASTNode;
+import com.intellij.lang.Language;
 import com.intellij.lang.PsiBuilder;
 import com.intellij.lang.PsiBuilderFactory;
 import com.intellij.lang.PsiParser;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.tree.ILazyParseableElementType;
+import com.intellij.psi.tree.IReparseableElementType;
 import com.perl5.lang.perl.PerlLanguage;
 import com.perl5.lang.perl.lexer.adapters.PerlMergingLexerAdapter;
 import com.perl5.lang.perl.parser.PerlParserImpl;
 import com.perl5.lang.perl.parser.elementTypes.PsiElementProvider;
 import com.perl5.lang.tt2.TemplateToolkitLanguage;
+import com.perl5.lang.tt2.idea.settings.TemplateToolkitSettings;
 import com.perl5.lang.tt2.psi.impl.TemplateToolkitPerlBlockElementImpl;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * Created by hurricup on 11.06.2016.
+ * Perl code block is reparseable in place while changed text contains no template toolkit tags
  */
-public class TemplateToolkitPerlCodeElementType extends ILazyParseableElementType implements PsiElementProvider
+public class TemplateToolkitPerlCodeElementType extends IReparseableElementType implements PsiElementProvider
 {
 	public TemplateToolkitPerlCodeElementType(@NotNull @NonNls String debugName)
 	{
@@ -58,6 +62,15 @@ public class TemplateToolkitPerlCodeElementType extends ILazyParseableElementTyp
 		return parser.parse(this, builder).getFirstChildNode();
 	}
 
+	@Override
+	public boolean isParsable(CharSequence buffer, Language fileLanguage, Project project)
+	{
+		TemplateToolkitSettings settings = TemplateToolkitSettings.getInstance(project);
+		return !StringUtil.contains(buffer, settings.START_TAG) &&
+				!StringUtil.contains(buffer, settings.END_TAG) &&
+				!StringUtil.contains(buffer, settings.OUTLINE_TAG);
+	}
+
 	@NotNull
 	@Override
 	public PsiElement getPsiElement(@NotNull ASTNode node)
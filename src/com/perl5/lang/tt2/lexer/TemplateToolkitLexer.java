@@ -109,7 +109,7 @@ public class TemplateToolkitLexer extends TemplateToolkitLexerGenerated implemen
 				setCustomState(LEX_TEMPLATE_LINE);
 			}
 
-			assert !preparsedTokensList.isEmpty();
+			assert !preparsedTokens.isEmpty();
 			return getPreParsedToken();
 
 		}
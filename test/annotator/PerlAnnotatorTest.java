@@ -18,6 +18,9 @@ package annotator;
 
 import base.PerlLightCodeInsightFixtureTestCase;
 import com.perl5.lang.perl.idea.inspections.PerlDeprecatedInspection;
+import com.perl5.lang.perl.idea.inspections.PerlSubUnusedInpsection;
+import com.perl5.lang.perl.idea.inspections.PerlVariableLexicalUnusedInspection;
+import com.perl5.lang.perl.idea.inspections.PerlVariableShadowingInspection;
 
 /**
  * Created by hurricup on 09.11.2016.
@@ -42,6 +45,27 @@ public class PerlAnnotatorTest extends PerlLightCodeInsightFixtureTestCase
 		myFixture.checkHighlighting(true, false, false);
 	}
 
+	public void testUnusedSubs()
+	{
+		initWithFileSmart();
+		myFixture.enableInspections(PerlSubUnusedInpsection.class);
+		myFixture.checkHighlighting(true, false, false);
+	}
+
+	public void testLexicalShadowing()
+	{
+		initWithFileSmart();
+		myFixture.enableInspections(PerlVariableShadowingInspection.class);
+		myFixture.checkHighlighting(true, false, false);
+	}
+
+	public void testLexicalUnused()
+	{
+		initWithFileSmart();
+		myFixture.enableInspections(PerlVariableLexicalUnusedInspection.class);
+		myFixture.checkHighlighting(true, false, false);
+	}
+
 	private void doTest()
 	{
 		initWithFileSmart();
@@ -23,6 +23,7 @@ import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.editor.Caret;
 import com.intellij.openapi.editor.CaretModel;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.fileTypes.LanguageFileType;
 import com.intellij.openapi.roots.*;
 import com.intellij.openapi.roots.libraries.Library;
@@ -34,6 +35,7 @@ import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.CharsetToolkit;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.codeStyle.CodeStyleManager;
@@ -276,6 +278,25 @@ public abstract class PerlLightCodeInsightFixtureTestCase extends LightCodeInsig
 	}
 
 
+	/**
+	 * Replaces first occurrence of the text in the editor document and commits it
+	 */
+	protected void replaceText(@NotNull final String oldText, @NotNull final String newText)
+	{
+		final Document document = myFixture.getEditor().getDocument();
+		final int offset = document.getText().indexOf(oldText);
+		assertTrue(offset >= 0);
+		new WriteCommandAction.Simple(getProject())
+		{
+			@Override
+			protected void run() throws Throwable
+			{
+				document.replaceString(offset, offset + oldText.length(), newText);
+				PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+			}
+		}.execute();
+	}
+
 	protected void checkResultByFile(String filenameWithoutExtension)
 	{
 		String checkFileName = filenameWithoutExtension + ".txt";
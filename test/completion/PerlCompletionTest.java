@@ -16,6 +16,7 @@
 
 package completion;
 
+import com.intellij.codeInsight.completion.CompletionType;
 import com.intellij.testFramework.UsefulTestCase;
 import com.perl5.lang.perl.extensions.packageprocessor.impl.POSIXExports;
 import com.perl5.lang.perl.extensions.packageprocessor.impl.PerlDancer2DSL;
@@ -313,6 +314,21 @@ public class PerlCompletionTest extends PerlCompletionCodeInsightFixtureTestCase
 	}
 
 
+	public void testMethodsAfterMembersChange()
+	{
+		initWithFileSmart();
+		List<String> lookups = myFixture.getLookupElementStrings();
+		assertNotNull(lookups);
+		assertDoesntContain(lookups, "xyz_one", "xyz_nested");
+
+		replaceText("sub get_one", "sub xyz_one");
+		replaceText("return 1;", "sub xyz_nested {}");
+		myFixture.complete(CompletionType.BASIC, 1);
+		lookups = myFixture.getLookupElementStrings();
+		assertNotNull(lookups);
+		assertContainsElements(lookups, "xyz_one", "xyz_nested");
+	}
+
 	public void testAnnotation()
 	{
 		doTest("returns", "inject", "method", "override", "abstract", "deprecated", "noinspection", "type");
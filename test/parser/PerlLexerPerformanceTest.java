@@ -17,46 +17,146 @@
 package parser;
 
 import categories.Performance;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.CharsetToolkit;
 import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.util.Producer;
+import com.perl5.lang.htmlmason.lexer.HTMLMasonLexerAdapter;
+import com.perl5.lang.mason2.lexer.Mason2TemplatingLexerAdapter;
+import com.perl5.lang.perl.lexer.adapters.PerlCodeMergingLexerAdapter;
 import com.perl5.lang.perl.lexer.adapters.PerlMergingLexerAdapter;
+import com.perl5.lang.perl.lexer.adapters.PerlSublexingLexerAdapter;
+import com.sun.management.ThreadMXBean;
 import org.junit.experimental.categories.Category;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
 /**
  * Created by hurricup on 12.10.2016.
  */
 @Category(Performance.class)
 public class PerlLexerPerformanceTest extends PerlParserTestBase
 {
+	private static final int TEMPLATES_SIZE = 1024 * 1024;
+
 	public void testPerlTidyLexing()
 	{
+		doTestPerlTidyLexing("PerlTidy lexing", () -> new PerlMergingLexerAdapter(getProject(), false, true));
+	}
+
+	public void testPerlTidyIndexIndependentLexing()
+	{
+		doTestPerlTidyLexing("PerlTidy index-independent lexing", () -> new PerlMergingLexerAdapter(
+				new PerlSublexingLexerAdapter(getProject(), new PerlCodeMergingLexerAdapter(getProject(), false, false), true)
+		));
+	}
+
+	public void testPerlTidyLexingAllocations()
+	{
+		ThreadMXBean allocationsBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if (!allocationsBean.isThreadAllocatedMemorySupported())
+		{
+			System.err.println("Thread allocations measuring is not supported");
+			return;
+		}
+		long threadId = Thread.currentThread().getId();
 
 		String testData = getPerlTidy();
+		final int iterations = 10;
+
+		System.err.println("Warming up...");
+		for (int i = 0; i < iterations; i++)
+		{
+			testLexing(new PerlMergingLexerAdapter(getProject(), false, true), testData);
+		}
+
+		long tokens = 0;
+		long allocatedBefore = allocationsBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < iterations; i++)
+		{
+			Lexer lexer = new PerlMergingLexerAdapter(getProject(), false, true);
+			lexer.start(testData, 0, testData.length(), 0);
+			while (lexer.getTokenType() != null)
+			{
+				lexer.advance();
+				tokens++;
+			}
+		}
+		long allocated = allocationsBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
 
+		assertTrue(tokens > 0);
+		System.err.println("Lexing allocated " + allocated / tokens + " bytes per token, " + tokens / iterations + " tokens per iteration");
+	}
+
+	public void testHTMLMasonLexing()
+	{
+		doTestLexing(
+				"HTML::Mason lexing",
+				getRepeatedTestData("testData/parser/htmlmason/masonSample.code"),
+				70,
+				() -> new HTMLMasonLexerAdapter(getProject())
+		);
+	}
+
+	public void testMason2Lexing()
+	{
+		doTestLexing(
+				"Mason2 lexing",
+				getRepeatedTestData("testData/parser/mason2/template/testComponent.code"),
+				70,
+				() -> new Mason2TemplatingLexerAdapter(getProject())
+		);
+	}
+
+	/**
+	 * Loads test file and repeats it to get about a megabyte of text
+	 */
+	private String getRepeatedTestData(String path)
+	{
+		try
+		{
+			String text = FileUtil.loadFile(new File(path), CharsetToolkit.UTF8, true);
+			return StringUtil.repeat(text, TEMPLATES_SIZE / text.length() + 1);
+		}
+		catch (IOException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	private void doTestPerlTidyLexing(String testName, Producer<Lexer> lexerProducer)
+	{
+		doTestLexing(testName, getPerlTidy(), 70, lexerProducer);
+	}
+
+	private void doTestLexing(String testName, String testData, final int time, Producer<Lexer> lexerProducer)
+	{
 		final int iterations = 100;
 
 		System.err.println("Warming up...");
 		for (int i = 0; i < iterations; i++)
 		{
-			testLexing(testData);
+			testLexing(lexerProducer.produce(), testData);
 		}
 
-		final int time = 70;
-
-		PlatformTestUtil.startPerformanceTest("PerlTidy lexing", iterations * time, () ->
+		PlatformTestUtil.startPerformanceTest(testName, iterations * time, () ->
 		{
 			long length = 0;
 			for (int i = 0; i < iterations; i++)
 			{
-				length += testLexing(testData);
+				length += testLexing(lexerProducer.produce(), testData);
 			}
 			System.err.println("Lexing done in " + length / iterations + " ms per iteration of " + time);
 		}).cpuBound().useLegacyScaling().attempts(1).assertTiming();
 
 	}
 
-	private long testLexing(String testData)
+	private long testLexing(Lexer perlLexer, String testData)
 	{
-		PerlMergingLexerAdapter perlLexer = new PerlMergingLexerAdapter(getProject(), false, true);
 		perlLexer.start(testData, 0, testData.length(), 0);
 
 		long start = System.currentTimeMillis();
@@ -18,8 +18,13 @@ package parser;
 
 import com.intellij.psi.LanguageFileViewProviders;
 import com.perl5.lang.perl.PerlLanguage;
+import com.perl5.lang.perl.lexer.PerlElementTypes;
+import com.perl5.lang.perl.parser.elementTypes.PerlElementTypeFactory;
+import com.perl5.lang.perl.parser.elementTypes.PerlGeneratedElementType;
 import com.perl5.lang.perl.psi.PerlFileViewProviderFactory;
 
+import java.lang.reflect.Field;
+
 /**
  * Created by hurricup on 31.01.2016.
  */
@@ -31,6 +36,21 @@ public class PerlParserTest extends PerlParserTestBase
 		return "testData/parser/perl";
 	}
 
+	public void testGeneratedElementTypesFactories() throws IllegalAccessException
+	{
+		int elementTypesNumber = 0;
+		for (Field field : PerlElementTypes.class.getFields())
+		{
+			Object elementType = field.get(null);
+			if (elementType instanceof PerlGeneratedElementType)
+			{
+				elementTypesNumber++;
+				assertNotNull("No PSI factory for " + elementType, PerlElementTypeFactory.getPsiFactory(elementType.toString()));
+			}
+		}
+		assertTrue(elementTypesNumber > 0);
+	}
+
 	public void testIncorrectIndexes()
 	{
 		doTest();
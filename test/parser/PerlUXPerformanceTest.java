@@ -75,6 +75,40 @@ public class PerlUXPerformanceTest extends PerlLightCodeInsightFixtureTestCase
 		}).cpuBound().useLegacyScaling().assertTiming();
 	}
 
+	public void testSubBodyTyping()
+	{
+		initWithPerlTidy();
+		myFixture.getEditor().getCaretModel().moveToLogicalPosition(new LogicalPosition(5875, 4));
+		final String textToType = "my $x = 1;\n";
+		final PsiDocumentManager documentManager = PsiDocumentManager.getInstance(getProject());
+		final int iterations = 30;
+		for (int i = 0; i < iterations; i++)
+		{
+			myFixture.type(textToType);
+			documentManager.commitAllDocuments();
+		}
+
+		final int time = 1000;
+		PlatformTestUtil.startPerformanceTest("PerlTidy sub body typing", iterations * time, new ThrowableRunnable()
+		{
+			@Override
+			public void run() throws Throwable
+			{
+				long start = System.currentTimeMillis();
+				for (int i = 0; i < iterations; i++)
+				{
+					for (int j = 0; j < textToType.length(); j++)
+					{
+						myFixture.type(textToType.charAt(j));
+						documentManager.commitAllDocuments();
+					}
+				}
+				long length = System.currentTimeMillis() - start;
+				System.err.println("Typing in sub body done in " + length / iterations + " ms per iteration  of " + time);
+			}
+		}).cpuBound().useLegacyScaling().assertTiming();
+	}
+
 	public void testHighlighting()
 	{
 		initWithPerlTidy();
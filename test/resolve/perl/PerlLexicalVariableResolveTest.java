@@ -16,6 +16,11 @@
 
 package resolve.perl;
 
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.perl5.lang.perl.psi.PsiPerlStatement;
+
 /**
  * Created by hurricup on 18.02.2016.
  */
@@ -32,6 +37,17 @@ public class PerlLexicalVariableResolveTest extends PerlVariableResolveTestCase
 		doTest("variable_simple", true);
 	}
 
+	public void testRedeclared()
+	{
+		doTest("variable_redeclared", true);
+
+		PsiReference reference = getFile().findReferenceAt(myFixture.getEditor().getCaretModel().getOffset());
+		assertNotNull(reference);
+		PsiElement targetStatement = PsiTreeUtil.getParentOfType(reference.resolve(), PsiPerlStatement.class);
+		assertNotNull(targetStatement);
+		assertEquals("my $abc = $abc + 1;", targetStatement.getText());
+	}
+
 	public void testIfCondition()
 	{
 		doTest("variable_if_condition", true);
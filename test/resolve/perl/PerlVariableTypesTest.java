@@ -106,6 +106,26 @@ public class PerlVariableTypesTest extends PerlLightCodeInsightFixtureTestCase
 		doTest("DBI");
 	}
 
+	public void testMethodReturnTypeSubRenamed()
+	{
+		initWithFileAsScript(getTestName(true));
+		assertEquals("Foo::Baz", getVariableTypeAtCaret());
+
+		replaceText("sub get_baz", "sub get_other");
+		assertNull(getVariableTypeAtCaret());
+
+		replaceText("sub get_other", "sub get_baz");
+		assertEquals("Foo::Baz", getVariableTypeAtCaret());
+
+		replaceText("#@returns Foo::Baz", "#@returns Foo::Qux");
+		assertEquals("Foo::Qux", getVariableTypeAtCaret());
+	}
+
+	private String getVariableTypeAtCaret()
+	{
+		return getElementAtCaret(PerlVariable.class).guessVariableType();
+	}
+
 	public void doTest(String type)
 	{
 		doTest(getTestName(true), type);